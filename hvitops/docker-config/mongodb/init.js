@@ -73,10 +73,10 @@ db.lab_tests.insertMany([
   }
 ]);
 
-// Create indexes
-db.lab_tests.createIndex({ patientId: 1 });
-db.lab_tests.createIndex({ date: 1 });
-db.lab_tests.createIndex({ status: 1 });
+// Create indexes (the laboratory tests service also creates them at startup)
+db.lab_tests.createIndex({ patientId: 1, date: -1, _id: -1 }, { name: 'patientId_date' });
+db.lab_tests.createIndex({ status: 1, date: 1, _id: 1 }, { name: 'status_date' });
+db.lab_tests.createIndex({ date: -1, _id: -1 }, { name: 'date' });
 
 // Switch to records database
 db = db.getSiblingDB('hvitops_records');
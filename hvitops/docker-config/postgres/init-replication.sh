@@ -0,0 +1,4 @@
+#!/bin/sh
+# Lets the read replica (postgres-replica) stream the WAL of this server
+set -e
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,12 @@
+#!/bin/sh
+# Starts a streaming replica of the postgres service, cloning it on first start
+set -e
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+  until PGPASSWORD="$POSTGRES_PASSWORD" pg_basebackup -h "$PRIMARY_HOST" -U "$POSTGRES_USER" -D "$PGDATA" -X stream -R; do
+    echo "Waiting for $PRIMARY_HOST to accept replication connections"
+    rm -rf "${PGDATA:?}"/*
+    sleep 2
+  done
+  chmod 0700 "$PGDATA"
+fi
+exec postgres -c hot_standby=on
@@ -0,0 +1,97 @@
+package com.hvitops.appointments.service;
+
+import com.hvitops.appointments.dto.DoctorDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Lookups in the doctor directory as it grows. Latency of the {@link DoctorSnapshot} lookups
+ * should stay flat from 4 to 50,000 doctors; {@code scan*} are the former lookups, a scan of all
+ * doctors per call, for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DoctorDirectoryBenchmark {
+    
+    private static final String[] FIRST_NAMES = {"João", "Maria", "Pedro", "Ana", "Lúcia", "Carlos", "Beatriz", "José",
+            "Fernanda", "Antônio", "Juliana", "Rafael", "Camila", "Marcos", "Patrícia", "Gustavo"};
+    private static final String[] LAST_NAMES = {"Silva", "Santos", "Oliveira", "Costa", "Souza", "Pereira", "Lima",
+            "Gonçalves", "Ribeiro", "Almeida", "Araújo", "Carvalho", "Rocha", "Barbosa", "Melo", "Cardoso", "Teixeira"};
+    private static final String[] SPECIALTIES = {"Cardiologia", "Pediatria", "Ortopedia", "Dermatologia", "Neurologia",
+            "Ginecologia", "Oftalmologia", "Psiquiatria", "Urologia", "Endocrinologia", "Gastroenterologia", "Oncologia"};
+    // typed prefixes as they arrive from the type-ahead box
+    private static final String[] QUERIES = {"a", "ma", "joao", "ana co", "luc", "car ri", "ped oli", "fern al"};
+    
+    @Param({"4", "1000", "50000"})
+    private int doctors;
+    
+    private DoctorSnapshot snapshot;
+    private Map<Long, DoctorDTO> legacy;
+    private int next;
+    
+    @Setup
+    public void setUp() {
+        List<DoctorDTO> list = new ArrayList<>(doctors);
+        for (int i = 0; i < doctors; i++) {
+            String name = (i % 2 == 0 ? "Dr. " : "Dra. ") + FIRST_NAMES[i % FIRST_NAMES.length] + " "
+                    + LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length] + " "
+                    + LAST_NAMES[(i / 7) % LAST_NAMES.length];
+            list.add(new DoctorDTO((long) i + 1, name, SPECIALTIES[(i / 3) % SPECIALTIES.length]));
+        }
+        snapshot = DoctorSnapshot.of(new DoctorSnapshot.Version(doctors, null), list);
+        legacy = new HashMap<>();
+        list.forEach(doctor -> legacy.put(doctor.getId(), doctor));
+    }
+    
+    @Benchmark
+    public List<DoctorDTO> search() {
+        next = (next + 1) % QUERIES.length;
+        return snapshot.search(QUERIES[next], DoctorDirectory.MAX_SEARCH_RESULTS);
+    }
+    
+    @Benchmark
+    public List<DoctorDTO> bySpecialty() {
+        return snapshot.bySpecialty("cardiologia");
+    }
+    
+    @Benchmark
+    public List<String> specialties() {
+        return snapshot.specialties();
+    }
+    
+    @Benchmark
+    public List<DoctorDTO> scanBySpecialty() {
+        return legacy.values().stream()
+                .filter(d -> d.getSpecialty().equalsIgnoreCase("cardiologia"))
+                .collect(Collectors.toList());
+    }
+    
+    @Benchmark
+    public List<String> scanSpecialties() {
+        return legacy.values().stream()
+                .map(DoctorDTO::getSpecialty)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
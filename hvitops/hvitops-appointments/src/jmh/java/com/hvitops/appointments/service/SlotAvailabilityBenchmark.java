@@ -0,0 +1,117 @@
+package com.hvitops.appointments.service;
+
+import com.hvitops.appointments.dto.AvailableSlotDTO;
+import com.hvitops.appointments.entity.Appointment;
+import com.hvitops.appointments.entity.AppointmentStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Availability of one doctor over one month, for a doctor with a long history. {@code perSlotScan}
+ * is the former engine: the whole history loaded and scanned once per slot. {@code sortedSweep}
+ * is the current one: the appointments inside the window, then {@link SlotGrid#availability}.
+ *
+ * <p>No database is involved: a load is a copy of the history and the indexed range query a
+ * binary search, so the former engine's 176 round trips per month are left out of its cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SlotAvailabilityBenchmark {
+    
+    private static final LocalDate START = LocalDate.of(2026, 3, 1);
+    private static final LocalDate END = LocalDate.of(2026, 3, 31);
+    
+    @Param({"10000", "50000"})
+    private int historicalAppointments;
+    
+    private List<Appointment> history;
+    private List<LocalDateTime> startTimes;
+    
+    @Setup
+    public void setUp() {
+        history = new ArrayList<>(historicalAppointments);
+        startTimes = new ArrayList<>(historicalAppointments);
+        // one appointment in three slots, going back in time from the end of the window
+        LocalDate date = END;
+        int slot = 0;
+        while (history.size() < historicalAppointments) {
+            if (SlotGrid.isWorkingDay(date) && slot % 3 == 0) {
+                LocalDateTime start = date.atTime(SlotGrid.HOURS[slot % SlotGrid.HOURS.length], 0);
+                history.add(Appointment.builder()
+                        .doctorId(101L)
+                        .patientId(1L)
+                        .scheduledAt(start)
+                        .status(history.size() % 10 == 0 ? AppointmentStatus.CANCELLED : AppointmentStatus.SCHEDULED)
+                        .build());
+            }
+            if (++slot % SlotGrid.HOURS.length == 0) {
+                date = date.minusDays(1);
+            }
+        }
+        Collections.reverse(history);
+        for (Appointment appointment : history) {
+            if (appointment.getStatus() != AppointmentStatus.CANCELLED) {
+                startTimes.add(appointment.getScheduledAt());
+            }
+        }
+    }
+    
+    @Benchmark
+    public List<AvailableSlotDTO> perSlotScan() {
+        List<AvailableSlotDTO> slots = new ArrayList<>();
+        for (LocalDate date = START; !date.isAfter(END); date = date.plusDays(1)) {
+            DayOfWeek dayOfWeek = date.getDayOfWeek();
+            if (dayOfWeek.getValue() > 5) {
+                continue;
+            }
+            for (int hour : SlotGrid.HOURS) {
+                LocalDateTime slotStart = LocalDateTime.of(date, LocalTime.of(hour, 0));
+                LocalDateTime slotEnd = slotStart.plusHours(1);
+                List<Appointment> appointments = new ArrayList<>(history);
+                boolean available = appointments.stream()
+                        .filter(a -> a.getStatus() != AppointmentStatus.CANCELLED)
+                        .noneMatch(a -> {
+                            LocalDateTime appointmentEnd = a.getScheduledAt().plusHours(1);
+                            return !(slotEnd.isBefore(a.getScheduledAt()) || slotStart.isAfter(appointmentEnd));
+                        });
+                slots.add(new AvailableSlotDTO(slotStart, slotEnd, available));
+            }
+        }
+        return slots;
+    }
+    
+    @Benchmark
+    public List<AvailableSlotDTO> sortedSweep() {
+        int from = insertionPoint(START.atStartOfDay().minus(SlotGrid.SLOT_LENGTH));
+        int to = insertionPoint(END.plusDays(1).atStartOfDay());
+        return SlotGrid.availability(START, END, new ArrayList<>(startTimes.subList(from, to)));
+    }
+    
+    /** Index of the first start time at or after {@code time}; start times are distinct. */
+    private int insertionPoint(LocalDateTime time) {
+        int index = Collections.binarySearch(startTimes, time);
+        return index < 0 ? -index - 1 : index;
+    }
+}
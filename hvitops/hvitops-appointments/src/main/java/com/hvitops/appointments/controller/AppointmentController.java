@@ -1,17 +1,35 @@
 package com.hvitops.appointments.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import com.hvitops.appointments.dto.AppointmentDTO;
+import com.hvitops.appointments.dto.AppointmentPageDTO;
+import com.hvitops.appointments.dto.AppointmentStatsDTO;
 import com.hvitops.appointments.dto.AvailableSlotDTO;
+import com.hvitops.appointments.dto.BatchResultDTO;
 import com.hvitops.appointments.dto.DoctorDTO;
+import com.hvitops.appointments.dto.StatsRebuildDTO;
+import com.hvitops.appointments.exception.AppointmentConflictException;
+import com.hvitops.appointments.service.AppointmentBatchService;
 import com.hvitops.appointments.service.AppointmentService;
+import com.hvitops.appointments.service.AppointmentStatistics;
+import com.hvitops.appointments.service.DoctorDirectory;
+import com.hvitops.appointments.service.StatisticsRebuild;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/appointments")
@@ -19,6 +37,11 @@ import java.util.List;
 public class AppointmentController {
 
   private final AppointmentService appointmentService;
+  private final AppointmentBatchService appointmentBatchService;
+  private final DoctorDirectory doctorDirectory;
+  private final AppointmentStatistics appointmentStatistics;
+  private final StatisticsRebuild statisticsRebuild;
+  private final ObjectMapper objectMapper;
 
   @PostMapping
   public ResponseEntity<AppointmentDTO> createAppointment(@RequestBody AppointmentDTO dto) {
@@ -26,25 +49,131 @@ public class AppointmentController {
         .body(appointmentService.createAppointment(dto));
   }
 
+  @PostMapping("/batch")
+  public ResponseEntity<BatchResultDTO> createAppointments(@RequestBody List<AppointmentDTO> items) {
+    return ResponseEntity.ok(appointmentBatchService.createAppointments(items));
+  }
+
+  @PostMapping("/batch/cancel")
+  public ResponseEntity<BatchResultDTO> cancelAppointments(@RequestBody List<Long> ids) {
+    return ResponseEntity.ok(appointmentBatchService.cancelAppointments(ids));
+  }
+
+  /** Per-doctor and per-specialty counts and utilization of one day, today by default. */
+  @GetMapping("/stats")
+  public ResponseEntity<AppointmentStatsDTO> getStats(@RequestParam(required = false) LocalDate date) {
+    return ResponseEntity.ok(appointmentStatistics.getStats(date != null ? date : LocalDate.now()));
+  }
+
+  @PostMapping("/stats/rebuild")
+  public ResponseEntity<StatsRebuildDTO> rebuildStats() {
+    return ResponseEntity.ok(statisticsRebuild.rebuild());
+  }
+
   @GetMapping("/{id}")
   public ResponseEntity<AppointmentDTO> getAppointment(@PathVariable Long id) {
     return ResponseEntity.ok(appointmentService.getAppointmentById(id));
   }
 
+  /**
+   * Streams every matching appointment, as a JSON array or as NDJSON when the client accepts
+   * {@code application/x-ndjson}, optionally resuming after a cursor. Pass {@code limit} to get
+   * keyset pages instead.
+   */
   @GetMapping
-  public ResponseEntity<List<AppointmentDTO>> getAllAppointments() {
-    return ResponseEntity.ok(appointmentService.getAllAppointments());
+  public ResponseEntity<StreamingResponseBody> getAllAppointments(
+      @RequestParam(required = false) LocalDate startDate,
+      @RequestParam(required = false) LocalDate endDate,
+      @RequestParam(required = false) String after,
+      @RequestHeader HttpHeaders headers) {
+    return stream(null, null, startDate, endDate, after, headers);
+  }
+
+  @GetMapping(params = "limit")
+  public ResponseEntity<AppointmentPageDTO> getAppointmentPage(
+      @RequestParam(required = false) LocalDate startDate,
+      @RequestParam(required = false) LocalDate endDate,
+      @RequestParam int limit,
+      @RequestParam(required = false) String after) {
+    return ResponseEntity.ok(
+        appointmentService.getAppointmentPage(null, null, startDate, endDate, after, limit));
   }
 
   @GetMapping("/patient/{patientId}")
-  public ResponseEntity<List<AppointmentDTO>> getAppointmentsByPatient(
-      @PathVariable Long patientId) {
-    return ResponseEntity.ok(appointmentService.getAppointmentsByPatientId(patientId));
+  public ResponseEntity<StreamingResponseBody> getAppointmentsByPatient(
+      @PathVariable Long patientId,
+      @RequestParam(required = false) LocalDate startDate,
+      @RequestParam(required = false) LocalDate endDate,
+      @RequestParam(required = false) String after,
+      @RequestHeader HttpHeaders headers) {
+    return stream(patientId, null, startDate, endDate, after, headers);
+  }
+
+  @GetMapping(value = "/patient/{patientId}", params = "limit")
+  public ResponseEntity<AppointmentPageDTO> getAppointmentPageByPatient(
+      @PathVariable Long patientId,
+      @RequestParam(required = false) LocalDate startDate,
+      @RequestParam(required = false) LocalDate endDate,
+      @RequestParam int limit,
+      @RequestParam(required = false) String after) {
+    return ResponseEntity.ok(
+        appointmentService.getAppointmentPage(patientId, null, startDate, endDate, after, limit));
   }
 
   @GetMapping("/doctor/{doctorId}")
-  public ResponseEntity<List<AppointmentDTO>> getAppointmentsByDoctor(@PathVariable Long doctorId) {
-    return ResponseEntity.ok(appointmentService.getAppointmentsByDoctorId(doctorId));
+  public ResponseEntity<StreamingResponseBody> getAppointmentsByDoctor(
+      @PathVariable Long doctorId,
+      @RequestParam(required = false) LocalDate startDate,
+      @RequestParam(required = false) LocalDate endDate,
+      @RequestParam(required = false) String after,
+      @RequestHeader HttpHeaders headers) {
+    return stream(null, doctorId, startDate, endDate, after, headers);
+  }
+
+  @GetMapping(value = "/doctor/{doctorId}", params = "limit")
+  public ResponseEntity<AppointmentPageDTO> getAppointmentPageByDoctor(
+      @PathVariable Long doctorId,
+      @RequestParam(required = false) LocalDate startDate,
+      @RequestParam(required = false) LocalDate endDate,
+      @RequestParam int limit,
+      @RequestParam(required = false) String after) {
+    return ResponseEntity.ok(
+        appointmentService.getAppointmentPage(null, doctorId, startDate, endDate, after, limit));
+  }
+
+  private ResponseEntity<StreamingResponseBody> stream(
+      Long patientId,
+      Long doctorId,
+      LocalDate startDate,
+      LocalDate endDate,
+      String after,
+      HttpHeaders headers) {
+    boolean ndjson = headers.getAccept().contains(MediaType.APPLICATION_NDJSON);
+    StreamingResponseBody body =
+        out -> {
+          ObjectWriter writer =
+              ndjson ? objectMapper.writer().withRootValueSeparator("\n") : objectMapper.writer();
+          SequenceWriter sequence =
+              ndjson ? writer.writeValues(out) : writer.writeValuesAsArray(out);
+          appointmentService.streamAppointments(
+              patientId,
+              doctorId,
+              startDate,
+              endDate,
+              after,
+              appointment -> {
+                try {
+                  sequence.write(appointment);
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              });
+          // closed only on success: a failed listing must not end in a well-formed array
+          sequence.close();
+        };
+    return ResponseEntity.ok()
+        .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+        .body(body);
   }
 
   @PutMapping("/{id}")
@@ -61,17 +190,39 @@ public class AppointmentController {
 
   @GetMapping("/doctors/list")
   public ResponseEntity<List<DoctorDTO>> getDoctorsList() {
-    return ResponseEntity.ok(appointmentService.getDoctorsList());
+    return ResponseEntity.ok(doctorDirectory.getDoctors());
   }
 
   @GetMapping("/specialties/list")
     public ResponseEntity<List<String>> getAllSpecialties() {
-        return ResponseEntity.ok(appointmentService.getAllSpecialties());
+        return ResponseEntity.ok(doctorDirectory.getSpecialties());
     }
     
     @GetMapping("/doctors/specialty/{specialty}")
     public ResponseEntity<List<DoctorDTO>> getDoctorsBySpecialty(@PathVariable String specialty) {
-        return ResponseEntity.ok(appointmentService.getDoctorsBySpecialty(specialty));
+        return ResponseEntity.ok(doctorDirectory.getDoctorsBySpecialty(specialty));
+    }
+    
+    @GetMapping("/doctors/search")
+    public ResponseEntity<List<DoctorDTO>> searchDoctors(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(doctorDirectory.search(q, limit));
+    }
+    
+    @GetMapping("/doctors/{id}")
+    public ResponseEntity<DoctorDTO> getDoctor(@PathVariable Long id) {
+        return ResponseEntity.of(doctorDirectory.getDoctor(id));
+    }
+    
+    @PostMapping("/doctors")
+    public ResponseEntity<DoctorDTO> createDoctor(@RequestBody DoctorDTO dto) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(doctorDirectory.createDoctor(dto));
+    }
+    
+    @PutMapping("/doctors/{id}")
+    public ResponseEntity<DoctorDTO> updateDoctor(@PathVariable Long id, @RequestBody DoctorDTO dto) {
+        return ResponseEntity.ok(doctorDirectory.updateDoctor(id, dto));
     }
     
     @GetMapping("/slots/{doctorId}")
@@ -81,4 +232,14 @@ public class AppointmentController {
             @RequestParam LocalDate endDate) {
         return ResponseEntity.ok(appointmentService.getAvailableSlots(doctorId, startDate, endDate));
     }
+    
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+    
+    @ExceptionHandler(AppointmentConflictException.class)
+    public ResponseEntity<Map<String, String>> handleConflict(AppointmentConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    }
 }
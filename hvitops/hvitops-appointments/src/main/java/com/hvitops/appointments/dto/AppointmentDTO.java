@@ -22,4 +22,5 @@ public class AppointmentDTO {
     private String medicalRecordId;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 }
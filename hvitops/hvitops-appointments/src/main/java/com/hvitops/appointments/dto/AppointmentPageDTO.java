@@ -0,0 +1,16 @@
+package com.hvitops.appointments.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentPageDTO {
+    private List<AppointmentDTO> items;
+    /** Pass as {@code after} to get the next page; null on the last page. */
+    private String nextCursor;
+}
@@ -0,0 +1,19 @@
+package com.hvitops.appointments.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentStatsDTO {
+    private LocalDate date;
+    /** Bookable slots of one doctor on this date: 8 on weekdays, 0 at weekends. */
+    private int slotsPerDoctor;
+    private List<DoctorDayStatsDTO> doctors;
+    private List<SpecialtyDayStatsDTO> specialties;
+}
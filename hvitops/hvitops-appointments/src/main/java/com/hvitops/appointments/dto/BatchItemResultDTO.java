@@ -0,0 +1,28 @@
+package com.hvitops.appointments.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResultDTO {
+    /** Position of the item in the request. */
+    private int index;
+    private Long id;
+    private Outcome outcome;
+    private String error;
+    
+    public enum Outcome {
+        CREATED,
+        CANCELLED,
+        CONFLICT,
+        INVALID,
+        NOT_FOUND
+    }
+    
+    public boolean succeeded() {
+        return outcome == Outcome.CREATED || outcome == Outcome.CANCELLED;
+    }
+}
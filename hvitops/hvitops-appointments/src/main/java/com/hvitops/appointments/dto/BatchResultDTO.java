@@ -0,0 +1,17 @@
+package com.hvitops.appointments.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResultDTO {
+    private int succeeded;
+    private int failed;
+    /** One result per request item, in request order. */
+    private List<BatchItemResultDTO> items;
+}
@@ -0,0 +1,19 @@
+package com.hvitops.appointments.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorDayStatsDTO {
+    private Long doctorId;
+    private String doctorName;
+    private String specialty;
+    private int scheduled;
+    private int completed;
+    private int cancelled;
+    /** Share of the day's slots taken by scheduled and completed appointments; null when there are no slots. */
+    private Double utilization;
+}
@@ -0,0 +1,18 @@
+package com.hvitops.appointments.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpecialtyDayStatsDTO {
+    private String specialty;
+    private int doctors;
+    private int scheduled;
+    private int completed;
+    private int cancelled;
+    /** Share of the slots of all the specialty's doctors; null when there are no slots. */
+    private Double utilization;
+}
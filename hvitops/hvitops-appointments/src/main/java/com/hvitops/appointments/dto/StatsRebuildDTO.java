@@ -0,0 +1,14 @@
+package com.hvitops.appointments.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsRebuildDTO {
+    private int months;
+    private long rows;
+    private long durationMillis;
+}
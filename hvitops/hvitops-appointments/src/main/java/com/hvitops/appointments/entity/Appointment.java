@@ -15,8 +15,10 @@ import java.time.LocalDateTime;
 @Builder
 public class Appointment {
     
+    // pooled ids let Hibernate batch inserts; the increment matches the sequence's (V4 migration)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointments_id")
+    @SequenceGenerator(name = "appointments_id", sequenceName = "appointments_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -44,6 +46,10 @@ public class Appointment {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
     
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
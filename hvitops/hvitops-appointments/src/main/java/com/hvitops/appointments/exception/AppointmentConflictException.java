@@ -0,0 +1,13 @@
+package com.hvitops.appointments.exception;
+
+/**
+ * The requested change clashes with the current state: the doctor already has an appointment in
+ * that slot, the appointment was modified concurrently, or a statistics rebuild is already running.
+ * Answered with 409 Conflict.
+ */
+public class AppointmentConflictException extends RuntimeException {
+    
+    public AppointmentConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.hvitops.appointments.outbox;
+
+public enum AppointmentEventType {
+    CREATED,
+    UPDATED,
+    CANCELLED,
+    REMINDER_24H,
+    REMINDER_1H
+}
@@ -0,0 +1,95 @@
+package com.hvitops.appointments.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hvitops.appointments.entity.Appointment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Records appointment events in the outbox table, in the caller's transaction, as ready-made
+ * messages of the notifications queue. {@link OutboxRelay} pushes them once committed.
+ *
+ * <p>Record an event after the appointment has been written, so that its outbox id is taken
+ * once the appointment row is locked.
+ */
+@Component
+public class AppointmentOutbox {
+
+    private static final String INSERT =
+            "INSERT INTO appointment_outbox (appointment_id, event_type, payload) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public AppointmentOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(AppointmentEventType type, Appointment appointment) {
+        jdbcTemplate.update(INSERT, appointment.getId(), type.name(), message(type, appointment));
+    }
+
+    /** Records one event per appointment as a single JDBC batch. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(AppointmentEventType type, List<Appointment> appointments) {
+        if (appointments.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT, appointments.stream()
+                .map(appointment -> new Object[] {appointment.getId(), type.name(), message(type, appointment)})
+                .toList());
+    }
+
+    /**
+     * A notification in the shape the notifications service queues itself, plus the event. Its id
+     * stays the same when the relay delivers it again, so repeated deliveries can be recognized.
+     */
+    private String message(AppointmentEventType type, Appointment appointment) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", type.name());
+        event.put("appointmentId", appointment.getId());
+        event.put("patientId", appointment.getPatientId());
+        event.put("doctorId", appointment.getDoctorId());
+        event.put("scheduledAt", appointment.getScheduledAt());
+        event.put("status", appointment.getStatus());
+        event.put("version", appointment.getVersion());
+
+        Map<String, Object> notification = new LinkedHashMap<>();
+        notification.put("id", UUID.randomUUID().toString());
+        notification.put("recipient", "patient:" + appointment.getPatientId());
+        notification.put("subject", subject(type));
+        notification.put("body", "Appointment " + appointment.getId() + " with doctor " + appointment.getDoctorId()
+                + " on " + appointment.getScheduledAt() + " is " + appointment.getStatus());
+        notification.put("type", "email");
+        notification.put("status", "pending");
+        notification.put("createdAt", Instant.now().toString());
+        notification.put("event", event);
+        try {
+            return objectMapper.writeValueAsString(notification);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String subject(AppointmentEventType type) {
+        return switch (type) {
+            case CREATED -> "Appointment scheduled";
+            case UPDATED -> "Appointment updated";
+            case CANCELLED -> "Appointment cancelled";
+            case REMINDER_24H -> "Reminder: appointment tomorrow";
+            case REMINDER_1H -> "Reminder: appointment in one hour";
+        };
+    }
+}
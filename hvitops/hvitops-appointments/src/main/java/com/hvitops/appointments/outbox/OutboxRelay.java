@@ -0,0 +1,123 @@
+package com.hvitops.appointments.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the appointment outbox into the notifications queue, in id order, one batch per
+ * transaction: a batch is pushed with a single {@code LPUSH} and deleted afterwards, so a failure
+ * in between delivers it again (at least once). Only one instance relays at a time, which keeps
+ * the events of an appointment in order across instances.
+ *
+ * <p>While the queue holds {@code max-queue-length} messages or more the relay waits for the
+ * consumer and events stay in the outbox.
+ */
+@Component
+@ConditionalOnProperty(name = "appointments.outbox.relay-enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class OutboxRelay {
+
+    private static final String QUEUE = "notification_queue";
+
+    // advisory lock key shared by every instance ("outbox")
+    private static final long RELAY_LOCK = 0x6f7574626f78L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final int batchSize;
+    private final long maxQueueLength;
+    private final Counter published;
+    private final Counter throttled;
+    private final Timer batchTimer;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelay(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${appointments.outbox.batch-size:500}") int batchSize,
+            @Value("${appointments.outbox.max-queue-length:100000}") long maxQueueLength) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.redisTemplate = redisTemplate;
+        this.batchSize = batchSize;
+        this.maxQueueLength = maxQueueLength;
+        this.published = meterRegistry.counter("appointments.outbox.published");
+        this.throttled = meterRegistry.counter("appointments.outbox.throttled");
+        this.batchTimer = meterRegistry.timer("appointments.outbox.batch");
+        Gauge.builder("appointments.outbox.lag", lagMillis, millis -> millis.get() / 1000.0)
+                .description("Age of the oldest event not yet pushed to the notifications queue")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${appointments.outbox.poll-interval:PT0.5S}")
+    public void drain() {
+        try {
+            Integer relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed != null && relayed == batchSize);
+            updateLag();
+        } catch (DataAccessException e) {
+            // Redis failures are DataAccessExceptions as well; the batch stays in the outbox
+            log.warn("Outbox relay failed, retrying at the next poll: {}", e.getMessage());
+        }
+    }
+
+    /** Pushes and deletes the oldest events; returns how many, 0 when another instance holds the relay. */
+    private int relayBatch() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, RELAY_LOCK))) {
+            return 0;
+        }
+        Long queued = redisTemplate.opsForList().size(QUEUE);
+        long room = maxQueueLength - (queued == null ? 0 : queued);
+        if (room <= 0) {
+            throttled.increment();
+            return 0;
+        }
+        List<Event> events = jdbcTemplate.query(
+                "SELECT id, payload FROM appointment_outbox ORDER BY id LIMIT ?",
+                (row, i) -> new Event(row.getLong("id"), row.getString("payload")),
+                (int) Math.min(batchSize, room));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        long started = System.nanoTime();
+        // the consumer pops from the other end, so the first payload of the push comes out first
+        redisTemplate.opsForList().leftPushAll(QUEUE, events.stream().map(Event::payload).toList());
+        // by id: an event with a lower id may have committed after the select
+        jdbcTemplate.update("DELETE FROM appointment_outbox WHERE id = ANY(?)", statement -> statement.setArray(1,
+                statement.getConnection().createArrayOf("bigint", events.stream().map(Event::id).toArray())));
+        batchTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        published.increment(events.size());
+        return events.size();
+    }
+
+    private void updateLag() {
+        List<Long> oldest = jdbcTemplate.queryForList(
+                "SELECT (EXTRACT(EPOCH FROM localtimestamp - created_at) * 1000)::bigint FROM appointment_outbox ORDER BY id LIMIT 1",
+                Long.class);
+        lagMillis.set(oldest.isEmpty() ? 0 : Math.max(0, oldest.get(0)));
+    }
+
+    private record Event(long id, String payload) {
+    }
+}
@@ -0,0 +1,512 @@
+package com.hvitops.appointments.reminder;
+
+import com.hvitops.appointments.entity.Appointment;
+import com.hvitops.appointments.entity.AppointmentStatus;
+import com.hvitops.appointments.outbox.AppointmentEventType;
+import com.hvitops.appointments.outbox.AppointmentOutbox;
+import com.hvitops.appointments.repository.AppointmentRepository;
+import com.hvitops.appointments.transaction.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Sends reminders 24 hours and 1 hour before each scheduled appointment, as outbox events. The
+ * reminders of the appointments within the horizon are kept in a {@link TimingWheel}, loaded
+ * slice by slice as the horizon slides, and moved or dropped in O(1) when this instance changes
+ * an appointment.
+ *
+ * <p>Each instance only schedules the doctors of the shards it holds a lease on
+ * ({@link ReminderShards}). A shard's progress is stored with its lease, so after a restart or a
+ * failover its next owner loads the horizon and sends what was due since, and nothing older.
+ * Changes made by other instances are picked up within seconds by {@link #followChanges}, and
+ * {@link #verify} reconciles the whole horizon now and then; either way a reminder is checked
+ * against the database before it is sent, so it is never sent for an appointment that was
+ * cancelled or moved.
+ */
+@Component
+@Slf4j
+public class ReminderScheduler {
+
+    private static final Map<AppointmentEventType, Duration> LEADS = Map.of(
+            AppointmentEventType.REMINDER_24H, Duration.ofHours(24),
+            AppointmentEventType.REMINDER_1H, Duration.ofHours(1));
+    private static final Duration SHORTEST_LEAD = Duration.ofHours(1);
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentOutbox appointmentOutbox;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long tickMillis;
+    private final Duration horizon;
+    private final Duration retryDelay;
+    private final Duration leaseDuration;
+    private final Duration changesLag;
+    private final String owner = UUID.randomUUID().toString();
+    private final Counter sent;
+
+    // guards the wheel, the tracked reminders, the owned shards and the horizon
+    private final ReentrantLock lock = new ReentrantLock();
+    // serializes the scheduled maintenance, whose methods run concurrently on the scheduling pool
+    private final ReentrantLock maintenanceLock = new ReentrantLock();
+    private final Map<Long, Tracked> tracked = new HashMap<>();
+    private final TimingWheel<Reminder> wheel;
+    private final Set<Integer> owned = new HashSet<>();
+    private volatile ReminderShards shards;
+    private LocalDateTime loadedUntil;
+    // start of the last look for changes made elsewhere; only touched under the maintenance lock
+    private LocalDateTime changesCheckedAt = LocalDateTime.now();
+    private volatile LocalDateTime firedUntil = LocalDateTime.now();
+
+    public ReminderScheduler(
+            AppointmentRepository appointmentRepository,
+            AppointmentOutbox appointmentOutbox,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${appointments.reminders.enabled:true}") boolean enabled,
+            @Value("${appointments.reminders.tick:PT1S}") Duration tick,
+            @Value("${appointments.reminders.horizon:48h}") Duration horizon,
+            @Value("${appointments.reminders.retry-delay:30s}") Duration retryDelay,
+            @Value("${appointments.reminders.lease:1m}") Duration leaseDuration,
+            @Value("${appointments.reminders.changes-lag:1m}") Duration changesLag) {
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentOutbox = appointmentOutbox;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.tickMillis = tick.toMillis();
+        this.horizon = horizon;
+        this.retryDelay = retryDelay;
+        this.leaseDuration = leaseDuration;
+        this.changesLag = changesLag;
+        this.wheel = new TimingWheel<>(toTick(LocalDateTime.now()));
+        this.loadedUntil = LocalDateTime.now().plus(horizon);
+        this.sent = meterRegistry.counter("appointments.reminders.sent");
+        Gauge.builder("appointments.reminders.pending", this, scheduler -> scheduler.locked(scheduler.wheel::size))
+                .description("Reminders waiting in the timing wheel")
+                .register(meterRegistry);
+        Gauge.builder("appointments.reminders.shards", this, scheduler -> scheduler.locked(scheduler.owned::size))
+                .description("Reminder shards owned by this instance")
+                .register(meterRegistry);
+    }
+
+    /** Schedules, moves or drops the appointment's reminders once the current transaction commits. */
+    public void track(Appointment appointment) {
+        trackAll(List.of(appointment));
+    }
+
+    public void trackAll(Collection<Appointment> appointments) {
+        if (!enabled || appointments.isEmpty()) {
+            return;
+        }
+        List<Slot> slots = appointments.stream()
+                .map(appointment -> new Slot(appointment.getId(), appointment.getDoctorId(), appointment.getScheduledAt(),
+                        appointment.getStatus() == AppointmentStatus.SCHEDULED))
+                .toList();
+        AfterCommit.run(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            lock.lock();
+            try {
+                for (Slot slot : slots) {
+                    untrack(slot.appointmentId());
+                    if (slot.scheduled() && shards != null && owned.contains(shards.shardOf(slot.doctorId()))
+                            && !slot.scheduledAt().isAfter(loadedUntil)) {
+                        schedule(slot, now);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${appointments.reminders.tick:PT1S}")
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Reminder> due = new ArrayList<>();
+        lock.lock();
+        try {
+            wheel.advanceTo(toTick(now), due::add);
+            // the entry stays until the appointment starts (see verify), so that followChanges
+            // does not schedule reminders that were already sent a second time
+            for (Reminder reminder : due) {
+                Tracked entry = tracked.get(reminder.appointmentId());
+                if (entry != null) {
+                    entry.timers().removeIf(timer -> !timer.isPending());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!due.isEmpty()) {
+            send(due);
+        }
+        firedUntil = now;
+    }
+
+    /** Renews this instance's leases and takes or gives back shards so that every instance holds a fair share. */
+    @Scheduled(fixedDelayString = "${appointments.reminders.rebalance-interval:PT15S}")
+    public void rebalance() {
+        if (!enabled) {
+            return;
+        }
+        maintenanceLock.lock();
+        try {
+            if (shards == null) {
+                shards = new ReminderShards(jdbcTemplate, owner, leaseDuration);
+            }
+            int fairShare = shards.fairShare();
+            Set<Integer> held = shards.renew(locked(() -> Set.copyOf(owned)), firedUntil);
+            dropLost(held);
+            if (held.size() > fairShare) {
+                List<Integer> surplus = held.stream().sorted().skip(fairShare).toList();
+                drop(surplus);
+                shards.release(surplus, firedUntil);
+                log.info("Released reminder shards {} to other instances", surplus);
+            } else if (held.size() < fairShare) {
+                shards.claim(fairShare - held.size()).forEach(this::takeOver);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Reminder shard rebalance failed, retrying at the next run: {}", e.getMessage());
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    /** Slides the horizon, loading the reminders of the appointments that entered it. */
+    @Scheduled(
+            fixedDelayString = "${appointments.reminders.load-interval:PT10M}",
+            initialDelayString = "${appointments.reminders.load-interval:PT10M}")
+    public void extendHorizon() {
+        if (!enabled) {
+            return;
+        }
+        maintenanceLock.lock();
+        try {
+            LocalDateTime from = locked(() -> loadedUntil);
+            LocalDateTime to = LocalDateTime.now().plus(horizon);
+            Set<Integer> shardSet = locked(() -> Set.copyOf(owned));
+            List<Slot> slots = load(shardSet, from, to);
+            LocalDateTime now = LocalDateTime.now();
+            lock.lock();
+            try {
+                for (Slot slot : slots) {
+                    if (owned.contains(shards.shardOf(slot.doctorId())) && !tracked.containsKey(slot.appointmentId())) {
+                        schedule(slot, now);
+                    }
+                }
+                loadedUntil = to;
+            } finally {
+                lock.unlock();
+            }
+            log.debug("Reminder horizon extended to {}: {} appointments loaded", to, slots.size());
+        } catch (DataAccessException e) {
+            log.warn("Loading reminders failed, retrying at the next run: {}", e.getMessage());
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    /**
+     * Applies the appointments of the owned shards that other instances created, moved or
+     * cancelled since the last run. Reminders that came due between the change and now are sent
+     * right away, so a booking made elsewhere shortly before its 1 hour reminder still gets it.
+     * Each run looks {@code changes-lag} further back, for transactions that committed after the
+     * previous run although they stamped their rows before it; rows seen twice are applied once.
+     */
+    @Scheduled(fixedDelayString = "${appointments.reminders.changes-interval:PT5S}")
+    public void followChanges() {
+        if (!enabled || shards == null) {
+            return;
+        }
+        maintenanceLock.lock();
+        try {
+            LocalDateTime checkedAt = LocalDateTime.now();
+            Set<Integer> shardSet = locked(() -> Set.copyOf(owned));
+            List<Change> changes = loadChanges(shardSet, changesCheckedAt.minus(changesLag), checkedAt,
+                    locked(() -> loadedUntil));
+            int applied = 0;
+            lock.lock();
+            try {
+                for (Change change : changes) {
+                    Slot slot = change.slot();
+                    Tracked entry = tracked.get(slot.appointmentId());
+                    if (!owned.contains(shards.shardOf(slot.doctorId()))
+                            || entry == null && !slot.scheduled()
+                            || entry != null && slot.scheduled() && entry.scheduledAt().equals(slot.scheduledAt())) {
+                        continue;
+                    }
+                    untrack(slot.appointmentId());
+                    if (slot.scheduled()) {
+                        schedule(slot, change.updatedAt());
+                    }
+                    applied++;
+                }
+            } finally {
+                lock.unlock();
+            }
+            changesCheckedAt = checkedAt;
+            if (applied > 0) {
+                log.debug("Reminder wheel updated: {} appointments changed elsewhere", applied);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Looking for appointment changes failed, retrying at the next run: {}", e.getMessage());
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    /**
+     * Reconciles the wheel with the database over the loaded horizon, as a safety net for changes
+     * {@link #followChanges} missed, and forgets the appointments that have started.
+     */
+    @Scheduled(
+            fixedDelayString = "${appointments.reminders.verify-interval:PT15M}",
+            initialDelayString = "${appointments.reminders.verify-interval:PT15M}")
+    public void verify() {
+        if (!enabled) {
+            return;
+        }
+        maintenanceLock.lock();
+        try {
+            Set<Integer> shardSet = locked(() -> Set.copyOf(owned));
+            LocalDateTime until = locked(() -> loadedUntil);
+            Map<Long, Slot> current = load(shardSet, LocalDateTime.now(), until).stream()
+                    .collect(Collectors.toMap(Slot::appointmentId, Function.identity()));
+            LocalDateTime now = LocalDateTime.now();
+            int repaired = 0;
+            lock.lock();
+            try {
+                for (Long appointmentId : List.copyOf(tracked.keySet())) {
+                    Tracked entry = tracked.get(appointmentId);
+                    Slot slot = current.get(appointmentId);
+                    if (shardSet.contains(entry.shard()) && (slot == null || !slot.scheduledAt().equals(entry.scheduledAt()))) {
+                        untrack(appointmentId);
+                        repaired++;
+                    }
+                }
+                for (Slot slot : current.values()) {
+                    if (owned.contains(shards.shardOf(slot.doctorId())) && !tracked.containsKey(slot.appointmentId())
+                            && schedule(slot, now)) {
+                        repaired++;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (repaired > 0) {
+                log.debug("Reminder wheel repaired: {} appointments changed elsewhere", repaired);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Reminder verification failed, retrying at the next run: {}", e.getMessage());
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void releaseShards() {
+        if (!enabled || shards == null) {
+            return;
+        }
+        try {
+            shards.release(locked(() -> Set.copyOf(owned)), firedUntil);
+        } catch (DataAccessException e) {
+            log.warn("Could not release reminder shards, they are taken over when their leases expire: {}", e.getMessage());
+        }
+    }
+
+    /** Loads a newly leased shard, sending right away what came due since its last owner's progress. */
+    private void takeOver(int shard, LocalDateTime shardFiredUntil) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime notBefore = shardFiredUntil == null || shardFiredUntil.isAfter(now) ? now : shardFiredUntil;
+        LocalDateTime from = notBefore.plus(SHORTEST_LEAD).isAfter(now) ? notBefore.plus(SHORTEST_LEAD) : now;
+        List<Slot> slots = load(Set.of(shard), from, locked(() -> loadedUntil));
+        lock.lock();
+        try {
+            owned.add(shard);
+            for (Slot slot : slots) {
+                if (!tracked.containsKey(slot.appointmentId())) {
+                    schedule(slot, notBefore);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        log.info("Took over reminder shard {}: {} appointments, catching up from {}", shard, slots.size(), notBefore);
+    }
+
+    private void dropLost(Set<Integer> held) {
+        List<Integer> lost = locked(() -> owned.stream().filter(shard -> !held.contains(shard)).toList());
+        if (!lost.isEmpty()) {
+            log.warn("Lost the leases of reminder shards {}", lost);
+            drop(lost);
+        }
+    }
+
+    private void drop(Collection<Integer> shardsToDrop) {
+        lock.lock();
+        try {
+            owned.removeAll(shardsToDrop);
+            for (Long appointmentId : List.copyOf(tracked.keySet())) {
+                if (shardsToDrop.contains(tracked.get(appointmentId).shard())) {
+                    untrack(appointmentId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Hands due reminders to the outbox, for the appointments still scheduled at the same time. */
+    private void send(List<Reminder> due) {
+        try {
+            Integer recorded = transactionTemplate.execute(status -> {
+                Map<Long, Appointment> current = appointmentRepository.findAllById(
+                                due.stream().map(Reminder::appointmentId).distinct().toList()).stream()
+                        .collect(Collectors.toMap(Appointment::getId, Function.identity()));
+                Map<AppointmentEventType, List<Appointment>> byType = new HashMap<>();
+                for (Reminder reminder : due) {
+                    Appointment appointment = current.get(reminder.appointmentId());
+                    if (appointment != null && appointment.getStatus() == AppointmentStatus.SCHEDULED
+                            && appointment.getScheduledAt().equals(reminder.scheduledAt())) {
+                        byType.computeIfAbsent(reminder.type(), type -> new ArrayList<>()).add(appointment);
+                    }
+                }
+                byType.forEach(appointmentOutbox::recordAll);
+                return byType.values().stream().mapToInt(List::size).sum();
+            });
+            sent.increment(recorded == null ? 0 : recorded);
+        } catch (DataAccessException e) {
+            log.warn("Sending {} reminders failed, retrying in {}: {}", due.size(), retryDelay, e.getMessage());
+            long retryTick = toTick(LocalDateTime.now().plus(retryDelay));
+            lock.lock();
+            try {
+                for (Reminder reminder : due) {
+                    Tracked entry = tracked.computeIfAbsent(reminder.appointmentId(),
+                            id -> new Tracked(reminder.shard(), reminder.scheduledAt(), new ArrayList<>()));
+                    entry.timers().add(wheel.schedule(retryTick, reminder));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Adds the reminders of {@code slot} that fall after {@code notBefore}; returns whether there
+     * was any. Call with the lock held.
+     */
+    private boolean schedule(Slot slot, LocalDateTime notBefore) {
+        int shard = shards.shardOf(slot.doctorId());
+        List<TimingWheel.Timer<Reminder>> timers = new ArrayList<>(LEADS.size());
+        LEADS.forEach((type, lead) -> {
+            LocalDateTime fireAt = slot.scheduledAt().minus(lead);
+            if (fireAt.isAfter(notBefore)) {
+                timers.add(wheel.schedule(toTick(fireAt), new Reminder(slot.appointmentId(), shard, type, slot.scheduledAt())));
+            }
+        });
+        if (timers.isEmpty()) {
+            return false;
+        }
+        tracked.put(slot.appointmentId(), new Tracked(shard, slot.scheduledAt(), timers));
+        return true;
+    }
+
+    /** Call with the lock held. */
+    private void untrack(Long appointmentId) {
+        Tracked entry = tracked.remove(appointmentId);
+        if (entry != null) {
+            entry.timers().forEach(wheel::cancel);
+        }
+    }
+
+    /**
+     * Appointments of the given shards, scheduled after now and up to {@code until}, changed since
+     * {@code since}; served by idx_appointments_updated.
+     */
+    private List<Change> loadChanges(Set<Integer> shardSet, LocalDateTime since, LocalDateTime now, LocalDateTime until) {
+        if (shardSet.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("""
+                SELECT id, doctor_id, scheduled_at, status, updated_at FROM appointments
+                WHERE updated_at > ? AND scheduled_at > ? AND scheduled_at <= ?
+                  AND mod(doctor_id, ?) = ANY(CAST(? AS INT[]))
+                """,
+                (row, i) -> new Change(
+                        new Slot(row.getLong("id"), row.getLong("doctor_id"), row.getObject("scheduled_at", LocalDateTime.class),
+                                AppointmentStatus.SCHEDULED.name().equals(row.getString("status"))),
+                        row.getObject("updated_at", LocalDateTime.class)),
+                since, now, until, shards.count(), ReminderShards.shardArray(shardSet));
+    }
+
+    /** Scheduled appointments of the given shards in {@code (from, to]}, served by idx_appointments_scheduled. */
+    private List<Slot> load(Set<Integer> shardSet, LocalDateTime from, LocalDateTime to) {
+        if (shardSet.isEmpty() || !to.isAfter(from)) {
+            return List.of();
+        }
+        return jdbcTemplate.query("""
+                SELECT id, doctor_id, scheduled_at FROM appointments
+                WHERE status = 'SCHEDULED' AND scheduled_at > ? AND scheduled_at <= ?
+                  AND mod(doctor_id, ?) = ANY(CAST(? AS INT[]))
+                """,
+                (row, i) -> new Slot(row.getLong("id"), row.getLong("doctor_id"),
+                        row.getObject("scheduled_at", LocalDateTime.class), true),
+                from, to, shards.count(), ReminderShards.shardArray(shardSet));
+    }
+
+    private long toTick(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / tickMillis;
+    }
+
+    private <T> T locked(Supplier<T> read) {
+        lock.lock();
+        try {
+            return read.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Slot(long appointmentId, long doctorId, LocalDateTime scheduledAt, boolean scheduled) {
+    }
+
+    private record Change(Slot slot, LocalDateTime updatedAt) {
+    }
+
+    private record Reminder(long appointmentId, int shard, AppointmentEventType type, LocalDateTime scheduledAt) {
+    }
+
+    private record Tracked(int shard, LocalDateTime scheduledAt, List<TimingWheel.Timer<Reminder>> timers) {
+    }
+}
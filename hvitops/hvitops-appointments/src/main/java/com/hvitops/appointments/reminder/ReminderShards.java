@@ -0,0 +1,102 @@
+package com.hvitops.appointments.reminder;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Leases on the reminder shards of the reminder_shards table (V6 migration). Lease times are the
+ * database's, so instances do not depend on each other's clocks.
+ */
+final class ReminderShards {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String owner;
+    private final double leaseSeconds;
+    private final int count;
+
+    ReminderShards(JdbcTemplate jdbcTemplate, String owner, Duration lease) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.owner = owner;
+        this.leaseSeconds = lease.toMillis() / 1000.0;
+        this.count = jdbcTemplate.queryForObject("SELECT count(*) FROM reminder_shards", Integer.class);
+    }
+
+    int count() {
+        return count;
+    }
+
+    int shardOf(long doctorId) {
+        return (int) Math.floorMod(doctorId, (long) count);
+    }
+
+    /** Announces this instance and returns how many shards each running instance should own. */
+    int fairShare() {
+        jdbcTemplate.update("""
+                INSERT INTO reminder_instances (owner, seen_until) VALUES (?, localtimestamp + make_interval(secs => ?))
+                ON CONFLICT (owner) DO UPDATE SET seen_until = EXCLUDED.seen_until
+                """, owner, leaseSeconds);
+        jdbcTemplate.update("DELETE FROM reminder_instances WHERE seen_until < localtimestamp - INTERVAL '1 hour'");
+        Integer running = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM reminder_instances WHERE seen_until > localtimestamp", Integer.class);
+        return (count + Math.max(1, running) - 1) / Math.max(1, running);
+    }
+
+    /** Extends the leases of {@code shards} and records their progress; returns the ones still owned. */
+    Set<Integer> renew(Collection<Integer> shards, LocalDateTime firedUntil) {
+        if (shards.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList("""
+                UPDATE reminder_shards SET lease_until = localtimestamp + make_interval(secs => ?), fired_until = ?
+                WHERE owner = ? AND shard = ANY(CAST(? AS INT[])) RETURNING shard
+                """, Integer.class, leaseSeconds, firedUntil, owner, shardArray(shards)));
+    }
+
+    /** Takes up to {@code limit} free or expired shards; returns them with the time their reminders were sent up to. */
+    Map<Integer, LocalDateTime> claim(int limit) {
+        Map<Integer, LocalDateTime> claimed = new HashMap<>();
+        if (limit <= 0) {
+            return claimed;
+        }
+        jdbcTemplate.query("""
+                UPDATE reminder_shards SET owner = ?, lease_until = localtimestamp + make_interval(secs => ?)
+                WHERE shard IN (SELECT shard FROM reminder_shards
+                                WHERE owner IS NULL OR lease_until < localtimestamp
+                                ORDER BY shard LIMIT ? FOR UPDATE SKIP LOCKED)
+                RETURNING shard, fired_until
+                """,
+                (PreparedStatementSetter) statement -> {
+                    statement.setString(1, owner);
+                    statement.setDouble(2, leaseSeconds);
+                    statement.setInt(3, limit);
+                },
+                row -> {
+                    claimed.put(row.getInt("shard"), row.getObject("fired_until", LocalDateTime.class));
+                });
+        return claimed;
+    }
+
+    void release(Collection<Integer> shards, LocalDateTime firedUntil) {
+        if (shards.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("""
+                UPDATE reminder_shards SET owner = NULL, lease_until = NULL, fired_until = ?
+                WHERE owner = ? AND shard = ANY(CAST(? AS INT[]))
+                """, firedUntil, owner, shardArray(shards));
+    }
+
+    /** An array literal, e.g. {@code {1,5,9}}. */
+    static String shardArray(Collection<Integer> shards) {
+        return shards.stream().map(String::valueOf).collect(Collectors.joining(",", "{", "}"));
+    }
+}
@@ -0,0 +1,159 @@
+package com.hvitops.appointments.reminder;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel of {@value #LEVELS} levels of {@value #SLOTS} slots each, over whole
+ * ticks. A timer is kept in the level whose span covers its distance from the current tick, so
+ * scheduling and cancelling are O(1); when a level wraps around, the next level's slot is
+ * cascaded down. Timers further away than the wheel spans wait in its last slot and are placed
+ * again each time they are cascaded.
+ *
+ * <p>Not thread-safe.
+ */
+final class TimingWheel<T> {
+
+    private static final int BITS = 6;
+    static final int SLOTS = 1 << BITS;
+    static final int LEVELS = 4;
+    private static final long MASK = SLOTS - 1;
+    private static final long SPAN = 1L << (BITS * LEVELS);
+
+    private final Bucket<T>[][] levels;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long startTick) {
+        this.currentTick = startTick;
+        this.levels = new Bucket[LEVELS][SLOTS];
+        for (Bucket<T>[] level : levels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                level[slot] = new Bucket<>();
+            }
+        }
+    }
+
+    /** Schedules {@code payload} for {@code deadline}; a deadline already reached fires at the next tick. */
+    Timer<T> schedule(long deadline, T payload) {
+        Timer<T> timer = new Timer<>(deadline, payload);
+        // the current tick's slot has already been emptied
+        place(timer, currentTick + 1);
+        size++;
+        return timer;
+    }
+
+    /** Does nothing if the timer has already fired or been cancelled. */
+    void cancel(Timer<T> timer) {
+        if (timer.bucket != null) {
+            timer.bucket.remove(timer);
+            size--;
+        }
+    }
+
+    /** Moves the wheel to {@code tick}, handing every timer due by then to {@code expired}. */
+    void advanceTo(long tick, Consumer<T> expired) {
+        while (currentTick < tick) {
+            currentTick++;
+            for (int level = 1; level < LEVELS && (currentTick & ((1L << (BITS * level)) - 1)) == 0; level++) {
+                Bucket<T> bucket = levels[level][(int) ((currentTick >>> (BITS * level)) & MASK)];
+                for (Timer<T> timer = bucket.takeAll(); timer != null; ) {
+                    Timer<T> next = timer.next;
+                    // a timer due now lands in the level 0 slot emptied right below
+                    place(timer, currentTick);
+                    timer = next;
+                }
+            }
+            Bucket<T> due = levels[0][(int) (currentTick & MASK)];
+            for (Timer<T> timer = due.takeAll(); timer != null; ) {
+                Timer<T> next = timer.next;
+                timer.next = null;
+                size--;
+                expired.accept(timer.payload);
+                timer = next;
+            }
+        }
+    }
+
+    long currentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void place(Timer<T> timer, long earliest) {
+        long due = Math.max(timer.deadline, earliest);
+        long distance = Math.min(due - currentTick, SPAN - 1);
+        due = currentTick + distance;
+        int level = 0;
+        while (distance >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        levels[level][(int) ((due >>> (BITS * level)) & MASK)].add(timer);
+    }
+
+    static final class Timer<T> {
+
+        private final long deadline;
+        private final T payload;
+        private Bucket<T> bucket;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(long deadline, T payload) {
+            this.deadline = deadline;
+            this.payload = payload;
+        }
+
+        T payload() {
+            return payload;
+        }
+
+        boolean isPending() {
+            return bucket != null;
+        }
+    }
+
+    /** Doubly linked list of the timers of one slot. */
+    private static final class Bucket<T> {
+
+        private Timer<T> head;
+
+        void add(Timer<T> timer) {
+            timer.bucket = this;
+            timer.prev = null;
+            timer.next = head;
+            if (head != null) {
+                head.prev = timer;
+            }
+            head = timer;
+        }
+
+        void remove(Timer<T> timer) {
+            if (timer.prev != null) {
+                timer.prev.next = timer.next;
+            } else {
+                head = timer.next;
+            }
+            if (timer.next != null) {
+                timer.next.prev = timer.prev;
+            }
+            timer.bucket = null;
+            timer.prev = null;
+            timer.next = null;
+        }
+
+        /** Empties the slot and returns its timers, still chained by {@code next}. */
+        Timer<T> takeAll() {
+            Timer<T> first = head;
+            head = null;
+            for (Timer<T> timer = first; timer != null; timer = timer.next) {
+                timer.bucket = null;
+                timer.prev = null;
+            }
+            return first;
+        }
+    }
+}
@@ -1,14 +1,27 @@
 package com.hvitops.appointments.repository;
 
 import com.hvitops.appointments.entity.Appointment;
+import com.hvitops.appointments.entity.AppointmentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>, JpaSpecificationExecutor<Appointment> {
     List<Appointment> findByPatientId(Long patientId);
     List<Appointment> findByDoctorId(Long doctorId);
     List<Appointment> findByPatientIdAndDoctorId(Long patientId, Long doctorId);
+    
+    /** Start times of a doctor's appointments in {@code [from, to)}, in ascending order; served by idx_appointments_doctor_scheduled. */
+    @Query("select a.scheduledAt from Appointment a where a.doctorId = :doctorId and a.status <> :excluded"
+            + " and a.scheduledAt >= :from and a.scheduledAt < :to order by a.scheduledAt")
+    List<LocalDateTime> findBookedTimes(@Param("doctorId") Long doctorId,
+                                        @Param("excluded") AppointmentStatus excluded,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
 }
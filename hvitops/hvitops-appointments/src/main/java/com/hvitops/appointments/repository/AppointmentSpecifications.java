@@ -0,0 +1,49 @@
+package com.hvitops.appointments.repository;
+
+import com.hvitops.appointments.entity.Appointment;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters for appointment listings. Listings are ordered by {@link #KEYSET_ORDER}, which is unique
+ * per row, so {@link #after} can resume a listing from its last row without an offset.
+ */
+public final class AppointmentSpecifications {
+    
+    public static final Sort KEYSET_ORDER = Sort.by("scheduledAt", "id");
+    
+    private AppointmentSpecifications() {
+    }
+    
+    public static Specification<Appointment> all() {
+        return (root, query, cb) -> cb.conjunction();
+    }
+    
+    public static Specification<Appointment> patient(Long patientId) {
+        return (root, query, cb) -> cb.equal(root.get("patientId"), patientId);
+    }
+    
+    public static Specification<Appointment> doctor(Long doctorId) {
+        return (root, query, cb) -> cb.equal(root.get("doctorId"), doctorId);
+    }
+    
+    public static Specification<Appointment> scheduledFrom(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("scheduledAt"), from);
+    }
+    
+    public static Specification<Appointment> scheduledBefore(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThan(root.get("scheduledAt"), to);
+    }
+    
+    /** Rows after {@code (scheduledAt, id)} in {@link #KEYSET_ORDER}. */
+    public static Specification<Appointment> after(LocalDateTime scheduledAt, Long id) {
+        // the redundant lower bound lets PostgreSQL skip the monthly partitions before the cursor
+        return (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.get("scheduledAt"), scheduledAt),
+                cb.or(
+                        cb.greaterThan(root.get("scheduledAt"), scheduledAt),
+                        cb.and(cb.equal(root.get("scheduledAt"), scheduledAt), cb.greaterThan(root.get("id"), id))));
+    }
+}
@@ -0,0 +1,21 @@
+package com.hvitops.appointments.repository;
+
+import com.hvitops.appointments.entity.Doctor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface DoctorRepository extends JpaRepository<Doctor, Long> {
+    
+    /** Changes whenever a doctor is added, edited or removed; compared before reloading the directory. */
+    @Query("select count(d) as count, max(d.updatedAt) as lastUpdate from Doctor d")
+    Version findVersion();
+    
+    interface Version {
+        long getCount();
+        LocalDateTime getLastUpdate();
+    }
+}
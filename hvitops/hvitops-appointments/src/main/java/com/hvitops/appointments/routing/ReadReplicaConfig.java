@@ -0,0 +1,72 @@
+package com.hvitops.appointments.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Opt-in read replicas: {@code @Transactional(readOnly = true)} work is served by the replicas
+ * in {@code appointments.read-replicas.urls}, everything else and the migrations by the primary
+ * configured in {@code spring.datasource}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "appointments.read-replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            @Value("${appointments.read-replicas.urls}") List<String> urls,
+            @Value("${appointments.read-replicas.pool-size:10}") int poolSize,
+            @Value("${appointments.read-replicas.connection-timeout:1s}") Duration connectionTimeout,
+            @Value("${appointments.read-replicas.max-lag:3s}") Duration maxLag,
+            @Value("${appointments.read-replicas.sticky-window:10s}") Duration stickyWindow) {
+        return new ReplicaRoutingDataSource(primaryDataSource, urls, url -> {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + urls.indexOf(url));
+            replica.setJdbcUrl(url);
+            replica.setUsername(primaryDataSource.getUsername());
+            replica.setPassword(primaryDataSource.getPassword());
+            replica.setDriverClassName(primaryDataSource.getDriverClassName());
+            replica.setDataSourceProperties(primaryDataSource.getDataSourceProperties());
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            // a replica that is down must not hold up startup nor, for long, the reads that fall back
+            replica.setInitializationFailTimeout(-1);
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            return replica;
+        }, maxLag, stickyWindow);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        // the physical connection is chosen at the first statement, once the transaction's read-only flag is known
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter() {
+        return new ReadYourWritesFilter();
+    }
+}
@@ -0,0 +1,40 @@
+package com.hvitops.appointments.routing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Makes the user of a request, forwarded by the gateway as {@code X-User-Id}, known to
+ * {@link ReplicaRoutingDataSource} while the request is handled. Streamed listings are written
+ * on another thread after the handler returns and therefore read without stickiness.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final String USER_HEADER = "X-User-Id";
+    private static final ThreadLocal<String> CURRENT_USER = new ThreadLocal<>();
+
+    static String currentUser() {
+        return CURRENT_USER.get();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String user = request.getHeader(USER_HEADER);
+        if (user == null || user.isBlank()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        CURRENT_USER.set(user);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            CURRENT_USER.remove();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.hvitops.appointments.routing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Hands out connections of read-only transactions from a healthy read replica, round robin, and
+ * every other connection from the primary. A replica is only used once {@link #checkReplicas}
+ * has found it replaying the primary's WAL within the allowed lag, and it is skipped as soon as
+ * it refuses a connection. Without a healthy replica reads go to the primary.
+ *
+ * <p>After one of their writes commits, a user's reads stay on the primary for the sticky window,
+ * so they see their own changes while the replicas catch up. Users are identified by
+ * {@link ReadYourWritesFilter} and remembered by this instance only.
+ *
+ * <p>The read-only flag is set once the transaction has begun, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+    // replaying nothing means caught up; otherwise the lag is the age of the last replayed transaction
+    private static final String LAG_QUERY = """
+            SELECT pg_is_in_recovery(),
+                   CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END
+            """;
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final Cache<String, Boolean> recentWriters;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<String> replicaUrls,
+                                    Function<String, HikariDataSource> replicaPools,
+                                    Duration maxLag, Duration stickyWindow) {
+        this.primary = primary;
+        this.replicas = replicaUrls.stream().map(url -> new Replica(url, replicaPools.apply(url))).toList();
+        this.maxLag = maxLag;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(stickyWindow)
+                .build();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWriter();
+            return primary.getConnection();
+        }
+        String user = ReadYourWritesFilter.currentUser();
+        if (replicas.isEmpty() || (user != null && recentWriters.getIfPresent(user) != null)) {
+            return primary.getConnection();
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.pool.getConnection();
+            } catch (SQLException e) {
+                // stays out of rotation until the next health check finds it back
+                replica.markDown(e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Connections are taken from the configured pools");
+    }
+
+    @Scheduled(fixedDelayString = "${appointments.read-replicas.health-check-interval:PT2S}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(LAG_QUERY)) {
+                result.next();
+                if (!result.getBoolean(1)) {
+                    // a promoted or unrelated server no longer receives the primary's writes
+                    replica.markDown("not in recovery");
+                    continue;
+                }
+                double lagSeconds = result.getDouble(2);
+                if (result.wasNull()) {
+                    replica.markDown("no transaction replayed yet");
+                } else if (lagSeconds * 1000 > maxLag.toMillis()) {
+                    replica.markDown("lagging by " + lagSeconds + " s");
+                } else {
+                    replica.markUp();
+                }
+            } catch (SQLException e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    /** Keeps the current user's reads on the primary once the write transaction commits. */
+    private void rememberWriter() {
+        String user = ReadYourWritesFilter.currentUser();
+        if (user == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(user, Boolean.TRUE);
+            }
+        });
+    }
+
+    private static final class Replica {
+
+        private final String url;
+        private final HikariDataSource pool;
+        private volatile boolean healthy;
+
+        private Replica(String url, HikariDataSource pool) {
+            this.url = url;
+            this.pool = pool;
+        }
+
+        private void markUp() {
+            if (!healthy) {
+                healthy = true;
+                log.info("Read replica {} is up", url);
+            }
+        }
+
+        private void markDown(String reason) {
+            if (healthy) {
+                healthy = false;
+                log.warn("Read replica {} is down, reads fall back to the other replicas or the primary: {}", url, reason);
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.hvitops.appointments.service;
+
+import com.hvitops.appointments.dto.AppointmentDTO;
+import com.hvitops.appointments.dto.BatchItemResultDTO;
+import com.hvitops.appointments.dto.BatchItemResultDTO.Outcome;
+import com.hvitops.appointments.dto.BatchResultDTO;
+import com.hvitops.appointments.entity.Appointment;
+import com.hvitops.appointments.entity.AppointmentStatus;
+import com.hvitops.appointments.exception.AppointmentConflictException;
+import com.hvitops.appointments.outbox.AppointmentEventType;
+import com.hvitops.appointments.outbox.AppointmentOutbox;
+import com.hvitops.appointments.reminder.ReminderScheduler;
+import com.hvitops.appointments.repository.AppointmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates and cancels appointments in bulk. Items are written in chunks, one transaction per
+ * chunk, so Hibernate sends them as JDBC batches. A chunk that the database rejects as a whole,
+ * because one of its items overlaps an existing appointment or was changed concurrently, is
+ * rolled back and replayed item by item to find out which items failed.
+ */
+@Service
+@Slf4j
+public class AppointmentBatchService {
+    
+    private final AppointmentService appointmentService;
+    private final AppointmentRepository appointmentRepository;
+    private final OccupancyCalendar occupancyCalendar;
+    private final AppointmentOutbox appointmentOutbox;
+    private final ReminderScheduler reminderScheduler;
+    private final AppointmentStatistics appointmentStatistics;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxItems;
+    private final int chunkSize;
+    
+    public AppointmentBatchService(
+            AppointmentService appointmentService,
+            AppointmentRepository appointmentRepository,
+            OccupancyCalendar occupancyCalendar,
+            AppointmentOutbox appointmentOutbox,
+            ReminderScheduler reminderScheduler,
+            AppointmentStatistics appointmentStatistics,
+            TransactionTemplate transactionTemplate,
+            @Value("${appointments.batch.max-items:10000}") int maxItems,
+            @Value("${appointments.batch.chunk-size:500}") int chunkSize) {
+        this.appointmentService = appointmentService;
+        this.appointmentRepository = appointmentRepository;
+        this.occupancyCalendar = occupancyCalendar;
+        this.appointmentOutbox = appointmentOutbox;
+        this.reminderScheduler = reminderScheduler;
+        this.appointmentStatistics = appointmentStatistics;
+        this.transactionTemplate = transactionTemplate;
+        this.maxItems = maxItems;
+        this.chunkSize = chunkSize;
+    }
+    
+    public BatchResultDTO createAppointments(List<AppointmentDTO> items) {
+        checkSize(items);
+        BatchItemResultDTO[] results = new BatchItemResultDTO[items.size()];
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            String error = validate(items.get(i), now);
+            if (error != null) {
+                results[i] = new BatchItemResultDTO(i, null, Outcome.INVALID, error);
+            } else {
+                accepted.add(i);
+            }
+        }
+        rejectOverlapsWithinBatch(items, accepted, results);
+        
+        List<Integer> pending = accepted.stream().filter(i -> results[i] == null).toList();
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            List<Integer> chunk = pending.subList(from, Math.min(from + chunkSize, pending.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertChunk(items, chunk, results));
+            } catch (DataAccessException | AppointmentConflictException e) {
+                log.debug("Batch chunk of {} appointments rejected, retrying one by one: {}", chunk.size(), e.toString());
+                for (int i : chunk) {
+                    results[i] = createOne(i, items.get(i));
+                }
+            }
+        }
+        return summarize(results);
+    }
+    
+    public BatchResultDTO cancelAppointments(List<Long> ids) {
+        checkSize(ids);
+        BatchItemResultDTO[] results = new BatchItemResultDTO[ids.size()];
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            int start = from;
+            int end = Math.min(from + chunkSize, ids.size());
+            try {
+                transactionTemplate.executeWithoutResult(status -> cancelChunk(ids, start, end, results));
+            } catch (DataAccessException | AppointmentConflictException e) {
+                log.debug("Batch chunk of {} cancellations rejected, retrying one by one: {}", end - start, e.toString());
+                for (int i = start; i < end; i++) {
+                    results[i] = cancelOne(i, ids.get(i));
+                }
+            }
+        }
+        return summarize(results);
+    }
+    
+    private void insertChunk(List<AppointmentDTO> items, List<Integer> chunk, BatchItemResultDTO[] results) {
+        List<Appointment> appointments = chunk.stream()
+                .map(i -> Appointment.builder()
+                        .patientId(items.get(i).getPatientId())
+                        .doctorId(items.get(i).getDoctorId())
+                        .scheduledAt(items.get(i).getScheduledAt())
+                        .status(AppointmentStatus.SCHEDULED)
+                        .notes(items.get(i).getNotes())
+                        .build())
+                .toList();
+        // ids come from the pooled sequence, so nothing is inserted until this flush sends the batch
+        List<Appointment> saved = appointmentRepository.saveAllAndFlush(appointments);
+        for (int k = 0; k < chunk.size(); k++) {
+            Appointment appointment = saved.get(k);
+            occupancyCalendar.book(appointment.getDoctorId(), appointment.getScheduledAt());
+            results[chunk.get(k)] = new BatchItemResultDTO(chunk.get(k), appointment.getId(), Outcome.CREATED, null);
+        }
+        appointmentOutbox.recordAll(AppointmentEventType.CREATED, saved);
+        reminderScheduler.trackAll(saved);
+        appointmentStatistics.record(saved.stream().map(AppointmentStatistics.Transition::created).toList());
+    }
+    
+    private void cancelChunk(List<Long> ids, int start, int end, BatchItemResultDTO[] results) {
+        Map<Long, Appointment> found = appointmentRepository.findAllById(ids.subList(start, end)).stream()
+                .collect(Collectors.toMap(Appointment::getId, Function.identity()));
+        List<Appointment> cancelled = new ArrayList<>();
+        List<AppointmentStatistics.Transition> transitions = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            Appointment appointment = found.get(ids.get(i));
+            if (appointment == null) {
+                results[i] = new BatchItemResultDTO(i, ids.get(i), Outcome.NOT_FOUND, "Appointment not found");
+                continue;
+            }
+            if (appointment.getStatus() != AppointmentStatus.CANCELLED) {
+                occupancyCalendar.release(appointment.getDoctorId(), appointment.getScheduledAt());
+                AppointmentStatus previousStatus = appointment.getStatus();
+                appointment.setStatus(AppointmentStatus.CANCELLED);
+                cancelled.add(appointment);
+                transitions.add(AppointmentStatistics.Transition.changed(appointment.getScheduledAt(), previousStatus, appointment));
+            }
+            results[i] = new BatchItemResultDTO(i, ids.get(i), Outcome.CANCELLED, null);
+        }
+        // the dirty appointments are written as one batch of versioned updates
+        appointmentRepository.flush();
+        appointmentOutbox.recordAll(AppointmentEventType.CANCELLED, cancelled);
+        reminderScheduler.trackAll(cancelled);
+        appointmentStatistics.record(transitions);
+    }
+    
+    private BatchItemResultDTO createOne(int index, AppointmentDTO item) {
+        try {
+            return new BatchItemResultDTO(index, appointmentService.createAppointment(item).getId(), Outcome.CREATED, null);
+        } catch (AppointmentConflictException e) {
+            return new BatchItemResultDTO(index, null, Outcome.CONFLICT, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return new BatchItemResultDTO(index, null, Outcome.INVALID, e.getMessage());
+        }
+    }
+    
+    private BatchItemResultDTO cancelOne(int index, Long id) {
+        try {
+            appointmentService.cancelAppointment(id);
+            return new BatchItemResultDTO(index, id, Outcome.CANCELLED, null);
+        } catch (AppointmentConflictException e) {
+            return new BatchItemResultDTO(index, id, Outcome.CONFLICT, e.getMessage());
+        } catch (DataAccessException e) {
+            log.debug("Cancellation of appointment {} rejected: {}", id, e.toString());
+            return new BatchItemResultDTO(index, id, Outcome.CONFLICT, "Appointment could not be cancelled");
+        } catch (RuntimeException e) {
+            // also covers an appointment deleted after its chunk was rolled back
+            if ("Appointment not found".equals(e.getMessage())) {
+                return new BatchItemResultDTO(index, id, Outcome.NOT_FOUND, e.getMessage());
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Marks items that overlap an earlier item of the same doctor, which would otherwise make the
+     * database reject their whole chunk.
+     */
+    private static void rejectOverlapsWithinBatch(List<AppointmentDTO> items, List<Integer> accepted, BatchItemResultDTO[] results) {
+        List<Integer> ordered = new ArrayList<>(accepted);
+        ordered.sort(Comparator.comparing((Integer i) -> items.get(i).getDoctorId())
+                .thenComparing(i -> items.get(i).getScheduledAt())
+                .thenComparing(i -> i));
+        Map<Long, LocalDateTime> lastKept = new HashMap<>();
+        for (int i : ordered) {
+            AppointmentDTO item = items.get(i);
+            LocalDateTime previous = lastKept.get(item.getDoctorId());
+            if (previous != null && SlotGrid.overlaps(item.getScheduledAt(), previous)) {
+                results[i] = new BatchItemResultDTO(i, null, Outcome.CONFLICT, "Overlaps another appointment of this batch");
+            } else {
+                lastKept.put(item.getDoctorId(), item.getScheduledAt());
+            }
+        }
+    }
+    
+    private static String validate(AppointmentDTO item, LocalDateTime now) {
+        if (item == null || item.getPatientId() == null || item.getDoctorId() == null || item.getScheduledAt() == null) {
+            return "patientId, doctorId and scheduledAt are required";
+        }
+        if (item.getScheduledAt().isBefore(now)) {
+            return "Cannot schedule appointment in the past";
+        }
+        if (!SlotGrid.isWithinWorkingHours(item.getScheduledAt())) {
+            return SlotGrid.OUTSIDE_WORKING_HOURS;
+        }
+        return null;
+    }
+    
+    private void checkSize(List<?> items) {
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("A batch may hold at most " + maxItems + " items");
+        }
+    }
+    
+    private static BatchResultDTO summarize(BatchItemResultDTO[] results) {
+        int succeeded = (int) Arrays.stream(results).filter(BatchItemResultDTO::succeeded).count();
+        return new BatchResultDTO(succeeded, results.length - succeeded, List.of(results));
+    }
+}
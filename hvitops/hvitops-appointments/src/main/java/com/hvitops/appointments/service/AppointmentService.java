@@ -1,42 +1,62 @@
 package com.hvitops.appointments.service;
 
 import com.hvitops.appointments.dto.AppointmentDTO;
+import com.hvitops.appointments.dto.AppointmentPageDTO;
 import com.hvitops.appointments.dto.AvailableSlotDTO;
-import com.hvitops.appointments.dto.DoctorDTO;
 import com.hvitops.appointments.entity.Appointment;
 import com.hvitops.appointments.entity.AppointmentStatus;
+import com.hvitops.appointments.exception.AppointmentConflictException;
+import com.hvitops.appointments.outbox.AppointmentEventType;
+import com.hvitops.appointments.outbox.AppointmentOutbox;
+import com.hvitops.appointments.reminder.ReminderScheduler;
 import com.hvitops.appointments.repository.AppointmentRepository;
+import com.hvitops.appointments.repository.AppointmentSpecifications;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.DayOfWeek;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class AppointmentService {
     
-    private final AppointmentRepository appointmentRepository;
+    // PostgreSQL exclusion_violation, raised by the appointments_no_overlap constraint
+    private static final String EXCLUSION_VIOLATION = "23P01";
     
-    private static final Map<Long, DoctorDTO> DOCTORS = new HashMap<>();
+    private static final int MAX_PAGE_SIZE = 500;
     
-    static {
-        DOCTORS.put(1L, new DoctorDTO(1L, "Dr. João Silva", "Cardiologia"));
-        DOCTORS.put(2L, new DoctorDTO(2L, "Dra. Maria Santos", "Pediatria"));
-        DOCTORS.put(3L, new DoctorDTO(3L, "Dr. Pedro Oliveira", "Ortopedia"));
-        DOCTORS.put(4L, new DoctorDTO(4L, "Dra. Ana Costa", "Dermatologia"));
-    }
+    private final AppointmentRepository appointmentRepository;
+    private final OccupancyCalendar occupancyCalendar;
+    private final AppointmentOutbox appointmentOutbox;
+    private final ReminderScheduler reminderScheduler;
+    private final AppointmentStatistics appointmentStatistics;
+    private final EntityManager entityManager;
+    
+    @Value("${appointments.occupancy.enabled:true}")
+    private boolean occupancyEnabled;
     
     @Transactional
     public AppointmentDTO createAppointment(AppointmentDTO dto) {
         if (dto.getScheduledAt().isBefore(LocalDateTime.now())) {
             throw new IllegalArgumentException("Cannot schedule appointment in the past");
         }
+        if (!SlotGrid.isWithinWorkingHours(dto.getScheduledAt())) {
+            throw new IllegalArgumentException(SlotGrid.OUTSIDE_WORKING_HOURS);
+        }
         
         Appointment appointment = Appointment.builder()
                 .patientId(dto.getPatientId())
@@ -46,7 +66,11 @@ public class AppointmentService {
                 .notes(dto.getNotes())
                 .build();
         
-        Appointment saved = appointmentRepository.save(appointment);
+        Appointment saved = saveAndFlush(appointment);
+        occupancyCalendar.book(saved.getDoctorId(), saved.getScheduledAt());
+        appointmentOutbox.record(AppointmentEventType.CREATED, saved);
+        reminderScheduler.track(saved);
+        appointmentStatistics.record(List.of(AppointmentStatistics.Transition.created(saved)));
         return mapToDTO(saved);
     }
     
@@ -57,22 +81,6 @@ public class AppointmentService {
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
     }
     
-    @Transactional(readOnly = true)
-    public List<AppointmentDTO> getAppointmentsByPatientId(Long patientId) {
-        return appointmentRepository.findByPatientId(patientId)
-                .stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
-    }
-    
-    @Transactional(readOnly = true)
-    public List<AppointmentDTO> getAppointmentsByDoctorId(Long doctorId) {
-        return appointmentRepository.findByDoctorId(doctorId)
-                .stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
-    }
-    
     @Transactional
     public AppointmentDTO updateAppointment(Long id, AppointmentDTO dto) {
         Appointment appointment = appointmentRepository.findById(id)
@@ -81,6 +89,17 @@ public class AppointmentService {
         if (dto.getScheduledAt() != null && dto.getScheduledAt().isBefore(LocalDateTime.now())) {
             throw new IllegalArgumentException("Cannot schedule appointment in the past");
         }
+        if (dto.getScheduledAt() != null && !SlotGrid.isWithinWorkingHours(dto.getScheduledAt())) {
+            throw new IllegalArgumentException(SlotGrid.OUTSIDE_WORKING_HOURS);
+        }
+        
+        if (dto.getVersion() != null && !dto.getVersion().equals(appointment.getVersion())) {
+            throw new AppointmentConflictException("Appointment was modified by another request");
+        }
+        
+        LocalDateTime previousTime = appointment.getScheduledAt();
+        AppointmentStatus previousStatus = appointment.getStatus();
+        boolean wasActive = previousStatus != AppointmentStatus.CANCELLED;
         
         if (dto.getScheduledAt() != null) {
             appointment.setScheduledAt(dto.getScheduledAt());
@@ -95,7 +114,19 @@ public class AppointmentService {
             appointment.setMedicalRecordId(dto.getMedicalRecordId());
         }
         
-        Appointment updated = appointmentRepository.save(appointment);
+        Appointment updated = saveAndFlush(appointment);
+        
+        boolean isActive = updated.getStatus() != AppointmentStatus.CANCELLED;
+        boolean moved = !updated.getScheduledAt().equals(previousTime);
+        if (wasActive && (moved || !isActive)) {
+            occupancyCalendar.release(updated.getDoctorId(), previousTime);
+        }
+        if (isActive && (moved || !wasActive)) {
+            occupancyCalendar.book(updated.getDoctorId(), updated.getScheduledAt());
+        }
+        appointmentOutbox.record(wasActive && !isActive ? AppointmentEventType.CANCELLED : AppointmentEventType.UPDATED, updated);
+        reminderScheduler.track(updated);
+        appointmentStatistics.record(List.of(AppointmentStatistics.Transition.changed(previousTime, previousStatus, updated)));
         return mapToDTO(updated);
     }
     
@@ -103,82 +134,115 @@ public class AppointmentService {
     public void cancelAppointment(Long id) {
         Appointment appointment = appointmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
+        if (appointment.getStatus() == AppointmentStatus.CANCELLED) {
+            return;
+        }
+        occupancyCalendar.release(appointment.getDoctorId(), appointment.getScheduledAt());
+        AppointmentStatus previousStatus = appointment.getStatus();
         appointment.setStatus(AppointmentStatus.CANCELLED);
-        appointmentRepository.save(appointment);
+        Appointment cancelled = saveAndFlush(appointment);
+        appointmentOutbox.record(AppointmentEventType.CANCELLED, cancelled);
+        reminderScheduler.track(cancelled);
+        appointmentStatistics.record(List.of(
+                AppointmentStatistics.Transition.changed(cancelled.getScheduledAt(), previousStatus, cancelled)));
     }
     
+    /**
+     * One page of appointments in {@code (scheduledAt, id)} order, starting after {@code after},
+     * a cursor from a previous page.
+     */
     @Transactional(readOnly = true)
-    public List<AppointmentDTO> getAllAppointments() {
-        return appointmentRepository.findAll()
-                .stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
-    }
-    
-    @Transactional(readOnly = true)
-    public List<DoctorDTO> getDoctorsList() {
-        return new ArrayList<>(DOCTORS.values());
+    public AppointmentPageDTO getAppointmentPage(Long patientId, Long doctorId, LocalDate startDate, LocalDate endDate,
+                                                 String after, int limit) {
+        Specification<Appointment> filter = filter(patientId, doctorId, startDate, endDate, after);
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        // one extra row tells whether there is a next page
+        List<Appointment> rows = appointmentRepository.findBy(filter,
+                query -> query.sortBy(AppointmentSpecifications.KEYSET_ORDER).limit(pageSize + 1).all());
+        
+        List<Appointment> page = rows.subList(0, Math.min(rows.size(), pageSize));
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            Appointment last = page.get(page.size() - 1);
+            nextCursor = new AppointmentCursor(last.getScheduledAt(), last.getId()).encode();
+        }
+        return new AppointmentPageDTO(page.stream().map(this::mapToDTO).collect(Collectors.toList()), nextCursor);
     }
     
+    /**
+     * Hands every matching appointment after the {@code after} cursor, if any, to {@code consumer}
+     * as it is read from the database, in {@code (scheduledAt, id)} order, without holding the
+     * result set in memory.
+     */
     @Transactional(readOnly = true)
-    public List<DoctorDTO> getDoctorsBySpecialty(String specialty) {
-        return DOCTORS.values().stream()
-                .filter(d -> d.getSpecialty().equalsIgnoreCase(specialty))
-                .collect(Collectors.toList());
+    public void streamAppointments(Long patientId, Long doctorId, LocalDate startDate, LocalDate endDate,
+                                   String after, Consumer<AppointmentDTO> consumer) {
+        Specification<Appointment> filter = filter(patientId, doctorId, startDate, endDate, after);
+        try (Stream<Appointment> appointments = appointmentRepository.findBy(filter,
+                query -> query.sortBy(AppointmentSpecifications.KEYSET_ORDER).stream())) {
+            appointments.forEach(appointment -> {
+                consumer.accept(mapToDTO(appointment));
+                // keeps the persistence context from growing with the result set
+                entityManager.detach(appointment);
+            });
+        }
     }
     
-    @Transactional(readOnly = true)
-    public List<String> getAllSpecialties() {
-        return DOCTORS.values().stream()
-                .map(DoctorDTO::getSpecialty)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+    private static Specification<Appointment> filter(Long patientId, Long doctorId, LocalDate startDate, LocalDate endDate,
+                                                     String after) {
+        Specification<Appointment> filter = AppointmentSpecifications.all();
+        if (patientId != null) {
+            filter = filter.and(AppointmentSpecifications.patient(patientId));
+        }
+        if (doctorId != null) {
+            filter = filter.and(AppointmentSpecifications.doctor(doctorId));
+        }
+        if (startDate != null) {
+            filter = filter.and(AppointmentSpecifications.scheduledFrom(startDate.atStartOfDay()));
+        }
+        if (endDate != null) {
+            filter = filter.and(AppointmentSpecifications.scheduledBefore(endDate.plusDays(1).atStartOfDay()));
+        }
+        if (after != null) {
+            AppointmentCursor cursor = AppointmentCursor.decode(after);
+            filter = filter.and(AppointmentSpecifications.after(cursor.scheduledAt(), cursor.id()));
+        }
+        return filter;
     }
     
-    @Transactional(readOnly = true)
+    // not transactional: answered from memory once the window is loaded, without taking a connection
     public List<AvailableSlotDTO> getAvailableSlots(Long doctorId, LocalDate startDate, LocalDate endDate) {
-        List<AvailableSlotDTO> slots = new ArrayList<>();
-        
-        LocalDate current = startDate;
-        while (!current.isAfter(endDate)) {
-            DayOfWeek dayOfWeek = current.getDayOfWeek();
-            
-            if (dayOfWeek.getValue() >= 1 && dayOfWeek.getValue() <= 5) {
-                slots.addAll(generateDailySlots(doctorId, current));
-            }
-            
-            current = current.plusDays(1);
+        if (occupancyEnabled) {
+            return occupancyCalendar.getAvailableSlots(doctorId, startDate, endDate);
         }
-        
-        return slots;
+        // an appointment starting up to one slot before the window still overlaps its first slot
+        List<LocalDateTime> booked = appointmentRepository.findBookedTimes(
+                doctorId,
+                AppointmentStatus.CANCELLED,
+                startDate.atStartOfDay().minus(SlotGrid.SLOT_LENGTH),
+                endDate.plusDays(1).atStartOfDay());
+        return SlotGrid.availability(startDate, endDate, booked);
     }
     
-    private List<AvailableSlotDTO> generateDailySlots(Long doctorId, LocalDate date) {
-        List<AvailableSlotDTO> dailySlots = new ArrayList<>();
-        
-        int[] hours = {8, 9, 10, 11, 14, 15, 16, 17};
-        
-        for (int hour : hours) {
-            LocalDateTime slotStart = LocalDateTime.of(date, LocalTime.of(hour, 0));
-            LocalDateTime slotEnd = slotStart.plusHours(1);
-            
-            boolean isAvailable = isSlotAvailable(doctorId, slotStart, slotEnd);
-            dailySlots.add(new AvailableSlotDTO(slotStart, slotEnd, isAvailable));
+    /**
+     * Flushes right away so that overlaps, rejected by the database, and lost updates surface here
+     * as a conflict instead of as a failed commit.
+     */
+    private Appointment saveAndFlush(Appointment appointment) {
+        try {
+            return appointmentRepository.saveAndFlush(appointment);
+        } catch (OptimisticLockingFailureException e) {
+            throw new AppointmentConflictException("Appointment was modified by another request");
+        } catch (DataAccessException e) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof SQLException sqlException && EXCLUSION_VIOLATION.equals(sqlException.getSQLState())) {
+                    log.debug("Overlapping booking of doctor {} at {} rejected: {}",
+                            appointment.getDoctorId(), appointment.getScheduledAt(), sqlException.getMessage());
+                    throw new AppointmentConflictException("Doctor already has an appointment at this time");
+                }
+            }
+            throw e;
         }
-        
-        return dailySlots;
-    }
-    
-    private boolean isSlotAvailable(Long doctorId, LocalDateTime slotStart, LocalDateTime slotEnd) {
-        List<Appointment> appointments = appointmentRepository.findByDoctorId(doctorId);
-        
-        return appointments.stream()
-                .filter(a -> a.getStatus() != AppointmentStatus.CANCELLED)
-                .noneMatch(a -> {
-                    LocalDateTime appointmentEnd = a.getScheduledAt().plusHours(1);
-                    return !(slotEnd.isBefore(a.getScheduledAt()) || slotStart.isAfter(appointmentEnd));
-                });
     }
     
     private AppointmentDTO mapToDTO(Appointment appointment) {
@@ -192,6 +256,7 @@ public class AppointmentService {
                 .medicalRecordId(appointment.getMedicalRecordId())
                 .createdAt(appointment.getCreatedAt())
                 .updatedAt(appointment.getUpdatedAt())
+                .version(appointment.getVersion())
                 .build();
     }
 }
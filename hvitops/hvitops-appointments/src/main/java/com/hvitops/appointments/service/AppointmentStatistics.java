@@ -0,0 +1,230 @@
+package com.hvitops.appointments.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.hvitops.appointments.dto.AppointmentStatsDTO;
+import com.hvitops.appointments.dto.DoctorDTO;
+import com.hvitops.appointments.dto.DoctorDayStatsDTO;
+import com.hvitops.appointments.dto.SpecialtyDayStatsDTO;
+import com.hvitops.appointments.entity.Appointment;
+import com.hvitops.appointments.entity.AppointmentStatus;
+import com.hvitops.appointments.transaction.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Daily appointment counts per doctor and status. Every status change adds its deltas to the
+ * appointment_daily_stats rollup in the changing transaction, and to the days held in memory once
+ * it commits, so a day's statistics never depend on the size of the history. Days are reloaded
+ * from the rollup after {@code refresh-interval}, which picks up the changes of other instances.
+ *
+ * <p>Writers hold a shared advisory lock on the months they touch, which {@link StatisticsRebuild}
+ * takes exclusively while it recomputes a month.
+ */
+@Component
+public class AppointmentStatistics {
+
+    static final int LOCK_KEY = 0x73746174;
+
+    private static final String UPSERT = """
+            INSERT INTO appointment_daily_stats (day, doctor_id, scheduled, completed, cancelled) VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (day, doctor_id) DO UPDATE SET
+                scheduled = appointment_daily_stats.scheduled + EXCLUDED.scheduled,
+                completed = appointment_daily_stats.completed + EXCLUDED.completed,
+                cancelled = appointment_daily_stats.cancelled + EXCLUDED.cancelled
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DoctorDirectory doctorDirectory;
+    private final Cache<LocalDate, DayCounts> days;
+
+    public AppointmentStatistics(
+            JdbcTemplate jdbcTemplate,
+            DoctorDirectory doctorDirectory,
+            @Value("${appointments.stats.maximum-days:3660}") long maximumDays,
+            @Value("${appointments.stats.refresh-interval:1m}") Duration refreshInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.doctorDirectory = doctorDirectory;
+        this.days = Caffeine.newBuilder()
+                .maximumSize(maximumDays)
+                // local updates keep the load time, so a busy day is still refreshed
+                .expireAfter(new Expiry<LocalDate, DayCounts>() {
+                    @Override
+                    public long expireAfterCreate(LocalDate day, DayCounts counts, long currentTime) {
+                        return refreshInterval.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(LocalDate day, DayCounts counts, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(LocalDate day, DayCounts counts, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /** Records status changes in the rollup, in the caller's transaction. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Collection<Transition> transitions) {
+        // sorted, so that concurrent writers lock rollup rows and months in the same order
+        Map<Key, int[]> deltas = new TreeMap<>();
+        for (Transition transition : transitions) {
+            if (transition.fromStatus() != null) {
+                add(deltas, transition.doctorId(), transition.fromTime(), transition.fromStatus(), -1);
+            }
+            if (transition.toStatus() != null) {
+                add(deltas, transition.doctorId(), transition.toTime(), transition.toStatus(), 1);
+            }
+        }
+        deltas.values().removeIf(delta -> delta[0] == 0 && delta[1] == 0 && delta[2] == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        TreeSet<YearMonth> months = new TreeSet<>();
+        deltas.keySet().forEach(key -> months.add(YearMonth.from(key.day())));
+        for (YearMonth month : months) {
+            jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock_shared(?, ?)::text", String.class, LOCK_KEY, lockId(month));
+        }
+        jdbcTemplate.batchUpdate(UPSERT, deltas.entrySet().stream()
+                .map(entry -> new Object[] {entry.getKey().day(), entry.getKey().doctorId(),
+                        entry.getValue()[0], entry.getValue()[1], entry.getValue()[2]})
+                .toList());
+
+        AfterCommit.run(() -> deltas.forEach((key, delta) ->
+                days.asMap().computeIfPresent(key.day(), (day, counts) -> counts.plus(key.doctorId(), delta))));
+    }
+
+    public AppointmentStatsDTO getStats(LocalDate date) {
+        DayCounts cached = days.getIfPresent(date);
+        // loaded outside the cache's locks, so a JDBC call never pins a virtual thread
+        DayCounts counts = cached != null ? cached : days.asMap().merge(date, load(date), (current, loaded) -> current);
+        int slots = SlotGrid.isWorkingDay(date) ? SlotGrid.HOURS.length : 0;
+
+        Map<Long, DoctorDayStatsDTO> doctors = new LinkedHashMap<>();
+        for (DoctorDTO doctor : doctorDirectory.getDoctors()) {
+            doctors.put(doctor.getId(), doctorStats(doctor.getId(), doctor.getName(), doctor.getSpecialty(), counts, slots));
+        }
+        for (Long doctorId : counts.byDoctor().keySet()) {
+            // appointments of doctors no longer in the directory still count
+            doctors.computeIfAbsent(doctorId, id -> doctorStats(id, null, null, counts, slots));
+        }
+
+        Map<String, int[]> bySpecialty = new TreeMap<>();
+        for (DoctorDayStatsDTO doctor : doctors.values()) {
+            if (doctor.getSpecialty() == null) {
+                continue;
+            }
+            int[] totals = bySpecialty.computeIfAbsent(doctor.getSpecialty(), specialty -> new int[4]);
+            totals[0]++;
+            totals[1] += doctor.getScheduled();
+            totals[2] += doctor.getCompleted();
+            totals[3] += doctor.getCancelled();
+        }
+        List<SpecialtyDayStatsDTO> specialties = new ArrayList<>();
+        bySpecialty.forEach((specialty, totals) -> specialties.add(new SpecialtyDayStatsDTO(
+                specialty, totals[0], totals[1], totals[2], totals[3],
+                utilization(totals[1] + totals[2], totals[0] * slots))));
+
+        List<DoctorDayStatsDTO> doctorList = new ArrayList<>(doctors.values());
+        doctorList.sort(Comparator.comparing(DoctorDayStatsDTO::getDoctorId));
+        return new AppointmentStatsDTO(date, slots, doctorList, specialties);
+    }
+
+    /** Drops every day held in memory, after the rollup has been rebuilt. */
+    void invalidateAll() {
+        days.invalidateAll();
+    }
+
+    static int lockId(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    private DayCounts load(LocalDate date) {
+        Map<Long, int[]> byDoctor = new HashMap<>();
+        jdbcTemplate.query("SELECT doctor_id, scheduled, completed, cancelled FROM appointment_daily_stats WHERE day = ?",
+                row -> {
+                    byDoctor.put(row.getLong("doctor_id"),
+                            new int[] {row.getInt("scheduled"), row.getInt("completed"), row.getInt("cancelled")});
+                },
+                date);
+        return new DayCounts(byDoctor);
+    }
+
+    private static DoctorDayStatsDTO doctorStats(Long doctorId, String name, String specialty, DayCounts counts, int slots) {
+        int[] count = counts.byDoctor().getOrDefault(doctorId, new int[3]);
+        return new DoctorDayStatsDTO(doctorId, name, specialty, count[0], count[1], count[2],
+                utilization(count[0] + count[1], slots));
+    }
+
+    private static Double utilization(int booked, int slots) {
+        return slots == 0 ? null : (double) booked / slots;
+    }
+
+    private static void add(Map<Key, int[]> deltas, Long doctorId, LocalDateTime time, AppointmentStatus status, int delta) {
+        int column = switch (status) {
+            case SCHEDULED -> 0;
+            case COMPLETED -> 1;
+            case CANCELLED -> 2;
+        };
+        deltas.computeIfAbsent(new Key(time.toLocalDate(), doctorId), key -> new int[3])[column] += delta;
+    }
+
+    /**
+     * One appointment's move between days or statuses. The {@code from} side is null for a new
+     * appointment.
+     */
+    public record Transition(Long doctorId, LocalDateTime fromTime, AppointmentStatus fromStatus,
+                             LocalDateTime toTime, AppointmentStatus toStatus) {
+
+        public static Transition created(Appointment appointment) {
+            return new Transition(appointment.getDoctorId(), null, null, appointment.getScheduledAt(), appointment.getStatus());
+        }
+
+        public static Transition changed(LocalDateTime fromTime, AppointmentStatus fromStatus, Appointment appointment) {
+            return new Transition(appointment.getDoctorId(), fromTime, fromStatus, appointment.getScheduledAt(), appointment.getStatus());
+        }
+    }
+
+    private record Key(LocalDate day, Long doctorId) implements Comparable<Key> {
+
+        @Override
+        public int compareTo(Key other) {
+            int byDay = day.compareTo(other.day);
+            return byDay != 0 ? byDay : doctorId.compareTo(other.doctorId);
+        }
+    }
+
+    /** Immutable counts of one day, indexed by doctor; updates return a copy. */
+    private record DayCounts(Map<Long, int[]> byDoctor) {
+
+        DayCounts plus(Long doctorId, int[] delta) {
+            Map<Long, int[]> copy = new HashMap<>(byDoctor);
+            int[] current = copy.getOrDefault(doctorId, new int[3]);
+            copy.put(doctorId, new int[] {current[0] + delta[0], current[1] + delta[1], current[2] + delta[2]});
+            return new DayCounts(copy);
+        }
+    }
+}
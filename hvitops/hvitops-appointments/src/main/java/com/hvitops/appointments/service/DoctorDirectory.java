@@ -0,0 +1,124 @@
+package com.hvitops.appointments.service;
+
+import com.hvitops.appointments.dto.DoctorDTO;
+import com.hvitops.appointments.entity.Doctor;
+import com.hvitops.appointments.repository.DoctorRepository;
+import com.hvitops.appointments.transaction.AfterCommit;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Doctor directory stored in the doctors table and served from an immutable {@link DoctorSnapshot}.
+ * Reads never touch the database; a new snapshot is built and swapped in whole after every
+ * committed change here, and by {@link #refreshIfChanged} for changes made elsewhere.
+ */
+@Component
+@Slf4j
+public class DoctorDirectory {
+    
+    public static final int MAX_SEARCH_RESULTS = 50;
+    
+    private final DoctorRepository doctorRepository;
+    // a lock rather than synchronized, so a reload on a virtual thread does not pin its carrier
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile DoctorSnapshot snapshot = DoctorSnapshot.EMPTY;
+    
+    public DoctorDirectory(DoctorRepository doctorRepository) {
+        this.doctorRepository = doctorRepository;
+    }
+    
+    @PostConstruct
+    void load() {
+        reload();
+    }
+    
+    public List<DoctorDTO> getDoctors() {
+        return snapshot.all();
+    }
+    
+    public Optional<DoctorDTO> getDoctor(Long id) {
+        return snapshot.findById(id);
+    }
+    
+    public List<DoctorDTO> getDoctorsBySpecialty(String specialty) {
+        return snapshot.bySpecialty(specialty);
+    }
+    
+    public List<String> getSpecialties() {
+        return snapshot.specialties();
+    }
+    
+    /** Type-ahead search by the beginning of any of the words of a doctor's name. */
+    public List<DoctorDTO> search(String query, int limit) {
+        return snapshot.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+    }
+    
+    @Transactional
+    public DoctorDTO createDoctor(DoctorDTO dto) {
+        validate(dto);
+        Doctor saved = doctorRepository.save(Doctor.builder()
+                .name(dto.getName().trim())
+                .specialty(dto.getSpecialty().trim())
+                .build());
+        AfterCommit.run(this::reload);
+        return toDTO(saved);
+    }
+    
+    @Transactional
+    public DoctorDTO updateDoctor(Long id, DoctorDTO dto) {
+        validate(dto);
+        Doctor doctor = doctorRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Doctor not found"));
+        doctor.setName(dto.getName().trim());
+        doctor.setSpecialty(dto.getSpecialty().trim());
+        Doctor saved = doctorRepository.saveAndFlush(doctor);
+        AfterCommit.run(this::reload);
+        return toDTO(saved);
+    }
+    
+    /** Picks up doctors changed by other instances or directly in the database. */
+    @Scheduled(
+            fixedDelayString = "${appointments.doctors.refresh-interval:PT1M}",
+            initialDelayString = "${appointments.doctors.refresh-interval:PT1M}")
+    public void refreshIfChanged() {
+        if (!currentVersion().equals(snapshot.version())) {
+            reload();
+        }
+    }
+    
+    private void reload() {
+        reloadLock.lock();
+        try {
+            // read the version first: a change committed meanwhile makes the next check reload again
+            DoctorSnapshot.Version version = currentVersion();
+            List<DoctorDTO> doctors = doctorRepository.findAll().stream().map(this::toDTO).toList();
+            snapshot = DoctorSnapshot.of(version, doctors);
+            log.debug("Doctor directory loaded: {} doctors, {} specialties", doctors.size(), snapshot.specialties().size());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+    
+    private DoctorSnapshot.Version currentVersion() {
+        DoctorRepository.Version version = doctorRepository.findVersion();
+        return new DoctorSnapshot.Version(version.getCount(), version.getLastUpdate());
+    }
+    
+    private static void validate(DoctorDTO dto) {
+        if (dto.getName() == null || dto.getName().isBlank()
+                || dto.getSpecialty() == null || dto.getSpecialty().isBlank()) {
+            throw new IllegalArgumentException("Doctor name and specialty are required");
+        }
+    }
+    
+    private DoctorDTO toDTO(Doctor doctor) {
+        return new DoctorDTO(doctor.getId(), doctor.getName(), doctor.getSpecialty());
+    }
+}
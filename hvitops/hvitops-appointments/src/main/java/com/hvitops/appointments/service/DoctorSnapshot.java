@@ -0,0 +1,136 @@
+package com.hvitops.appointments.service;
+
+import com.hvitops.appointments.dto.DoctorDTO;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable view of the doctor directory with its lookup indexes. Specialties and names are
+ * matched ignoring case and accents, so "cardiologia" finds "Cardiologia" and "joao" finds
+ * "Dr. João Silva".
+ */
+final class DoctorSnapshot {
+    
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Comparator<DoctorDTO> BY_NAME =
+            Comparator.comparing((DoctorDTO d) -> normalize(d.getName())).thenComparing(DoctorDTO::getId);
+    
+    static final DoctorSnapshot EMPTY = of(new Version(0, null), List.of());
+    
+    private final Version version;
+    private final List<DoctorDTO> all;
+    private final Map<Long, DoctorDTO> byId;
+    private final DoctorDTO[] byName;
+    private final NameTrie names;
+    private final Map<String, List<DoctorDTO>> bySpecialty;
+    private final List<String> specialties;
+    
+    private DoctorSnapshot(Version version, List<DoctorDTO> doctors) {
+        this.version = version;
+        this.all = doctors.stream().sorted(Comparator.comparing(DoctorDTO::getId)).toList();
+        this.byId = all.stream().collect(Collectors.toUnmodifiableMap(DoctorDTO::getId, Function.identity()));
+        this.byName = doctors.stream().sorted(BY_NAME).toArray(DoctorDTO[]::new);
+        this.names = NameTrie.of(Arrays.stream(byName).map(d -> words(d.getName())).toList());
+        
+        // keyed by the normalized specialty; the spelling of the oldest doctor is the one shown
+        Map<String, List<DoctorDTO>> grouped = new LinkedHashMap<>();
+        for (DoctorDTO doctor : byName) {
+            grouped.computeIfAbsent(normalize(doctor.getSpecialty()), k -> new ArrayList<>()).add(doctor);
+        }
+        Map<String, String> spellings = new LinkedHashMap<>();
+        for (DoctorDTO doctor : all) {
+            spellings.putIfAbsent(normalize(doctor.getSpecialty()), doctor.getSpecialty().trim());
+        }
+        this.bySpecialty = grouped.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, e -> List.copyOf(e.getValue())));
+        this.specialties = spellings.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(Map.Entry::getValue)
+                .toList();
+    }
+    
+    static DoctorSnapshot of(Version version, List<DoctorDTO> doctors) {
+        return new DoctorSnapshot(version, doctors);
+    }
+    
+    Version version() {
+        return version;
+    }
+    
+    List<DoctorDTO> all() {
+        return all;
+    }
+    
+    Optional<DoctorDTO> findById(Long id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+    
+    List<DoctorDTO> bySpecialty(String specialty) {
+        return bySpecialty.getOrDefault(normalize(specialty), List.of());
+    }
+    
+    List<String> specialties() {
+        return specialties;
+    }
+    
+    /**
+     * Doctors, in name order, having a name word that starts with each word of {@code query};
+     * "ana co" finds "Dra. Ana Costa".
+     */
+    List<DoctorDTO> search(String query, int limit) {
+        List<String> prefixes = words(query);
+        if (prefixes.isEmpty()) {
+            return List.of();
+        }
+        // walk the shortest posting list and probe the others
+        int[][] postings = prefixes.stream().map(names::find).sorted(Comparator.comparingInt(p -> p.length)).toArray(int[][]::new);
+        List<DoctorDTO> found = new ArrayList<>(Math.min(limit, postings[0].length));
+        for (int entry : postings[0]) {
+            if (found.size() == limit) {
+                break;
+            }
+            if (inAll(postings, entry)) {
+                found.add(byName[entry]);
+            }
+        }
+        return found;
+    }
+    
+    private static boolean inAll(int[][] postings, int entry) {
+        for (int i = 1; i < postings.length; i++) {
+            if (Arrays.binarySearch(postings[i], entry) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    static String normalize(String text) {
+        return MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT)
+                .trim();
+    }
+    
+    private static List<String> words(String text) {
+        return Arrays.stream(WORD_SEPARATORS.split(normalize(text)))
+                .filter(word -> !word.isEmpty())
+                .toList();
+    }
+    
+    /** Row count and latest change of the doctors table when the snapshot was read. */
+    record Version(long count, LocalDateTime lastUpdate) {
+    }
+}
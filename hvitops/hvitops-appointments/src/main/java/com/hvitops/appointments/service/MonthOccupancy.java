@@ -0,0 +1,66 @@
+package com.hvitops.appointments.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable occupancy of one doctor's month on the {@link SlotGrid}: one bit per slot, indexed by
+ * day of month and slot of the day. Updates return a copy, so readers never need a lock.
+ */
+final class MonthOccupancy {
+    
+    private static final int SLOTS_PER_DAY = SlotGrid.HOURS.length;
+    
+    private final YearMonth month;
+    private final long[] bits;
+    
+    private MonthOccupancy(YearMonth month, long[] bits) {
+        this.month = month;
+        this.bits = bits;
+    }
+    
+    /** Builds the month from the start times of its non-cancelled appointments. */
+    static MonthOccupancy of(YearMonth month, List<LocalDateTime> booked) {
+        long[] bits = new long[(month.lengthOfMonth() * SLOTS_PER_DAY + 63) / 64];
+        for (LocalDateTime start : booked) {
+            mark(month, bits, start);
+        }
+        return new MonthOccupancy(month, bits);
+    }
+    
+    MonthOccupancy with(LocalDateTime start) {
+        long[] copy = bits.clone();
+        mark(month, copy, start);
+        return new MonthOccupancy(month, copy);
+    }
+    
+    boolean isOccupied(LocalDate date, int slot) {
+        int index = index(date, slot);
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+    
+    boolean sameAs(MonthOccupancy other) {
+        return month.equals(other.month) && Arrays.equals(bits, other.bits);
+    }
+    
+    // the grid has no slot near midnight, so an appointment only ever occupies slots of its own day
+    private static void mark(YearMonth month, long[] bits, LocalDateTime start) {
+        LocalDate date = start.toLocalDate();
+        if (!YearMonth.from(date).equals(month)) {
+            return;
+        }
+        for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+            if (SlotGrid.overlaps(start, date.atTime(SlotGrid.HOURS[slot], 0))) {
+                int index = index(date, slot);
+                bits[index >>> 6] |= 1L << index;
+            }
+        }
+    }
+    
+    private static int index(LocalDate date, int slot) {
+        return (date.getDayOfMonth() - 1) * SLOTS_PER_DAY + slot;
+    }
+}
@@ -0,0 +1,84 @@
+package com.hvitops.appointments.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable prefix tree over the words of the directory's names. Every node keeps the sorted
+ * positions of the entries that have a word under it, so a prefix lookup costs one step per
+ * character regardless of how many doctors there are.
+ */
+final class NameTrie {
+    
+    private static final int[] NONE = new int[0];
+    
+    private final Node root;
+    
+    private NameTrie(Node root) {
+        this.root = root;
+    }
+    
+    /** Builds the trie; {@code wordsByEntry.get(i)} are the normalized words of entry {@code i}. */
+    static NameTrie of(List<List<String>> wordsByEntry) {
+        Builder root = new Builder();
+        for (int entry = 0; entry < wordsByEntry.size(); entry++) {
+            for (String word : wordsByEntry.get(entry)) {
+                Builder node = root;
+                for (int i = 0; i < word.length(); i++) {
+                    node = node.children.computeIfAbsent(word.charAt(i), c -> new Builder());
+                    node.add(entry);
+                }
+            }
+        }
+        return new NameTrie(root.build());
+    }
+    
+    /** Sorted positions of the entries with a word starting with {@code prefix}; must not be modified. */
+    int[] find(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        return node == null ? NONE : node.entries;
+    }
+    
+    private record Node(char[] labels, Node[] children, int[] entries) {
+        
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index < 0 ? null : children[index];
+        }
+    }
+    
+    private static final class Builder {
+        
+        private final Map<Character, Builder> children = new TreeMap<>();
+        private int[] entries = NONE;
+        private int size;
+        
+        void add(int entry) {
+            // entries arrive in increasing order, a repeat means two words of one name share the prefix
+            if (size > 0 && entries[size - 1] == entry) {
+                return;
+            }
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, Math.max(4, size * 2));
+            }
+            entries[size++] = entry;
+        }
+        
+        Node build() {
+            char[] labels = new char[children.size()];
+            List<Node> built = new ArrayList<>(children.size());
+            int i = 0;
+            for (Map.Entry<Character, Builder> child : children.entrySet()) {
+                labels[i++] = child.getKey();
+                built.add(child.getValue().build());
+            }
+            return new Node(labels, built.toArray(new Node[0]), Arrays.copyOf(entries, size));
+        }
+    }
+}
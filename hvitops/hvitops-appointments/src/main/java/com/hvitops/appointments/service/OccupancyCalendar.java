@@ -0,0 +1,162 @@
+package com.hvitops.appointments.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hvitops.appointments.dto.AvailableSlotDTO;
+import com.hvitops.appointments.entity.AppointmentStatus;
+import com.hvitops.appointments.repository.AppointmentRepository;
+import com.hvitops.appointments.transaction.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory slot occupancy per doctor and month, so slot lookups do not reach the database.
+ * Months are loaded on first use, in one range query per request window, and evicted when cold
+ * or when the cache is full.
+ *
+ * <p>Committed bookings set their bits in place. A release reloads the month instead, since a
+ * slot bit can be shared by two appointments that both touch the slot. Changes made by other
+ * instances, or that commit while their month is being loaded, are repaired by {@link #verify}.
+ */
+@Component
+@Slf4j
+public class OccupancyCalendar {
+    
+    private final AppointmentRepository appointmentRepository;
+    private final Cache<Key, MonthOccupancy> months;
+    
+    public OccupancyCalendar(
+            AppointmentRepository appointmentRepository,
+            @Value("${appointments.occupancy.maximum-months:50000}") long maximumMonths,
+            @Value("${appointments.occupancy.idle-expiry:1h}") Duration idleExpiry) {
+        this.appointmentRepository = appointmentRepository;
+        this.months = Caffeine.newBuilder()
+                .maximumSize(maximumMonths)
+                .expireAfterAccess(idleExpiry)
+                .build();
+    }
+    
+    public List<AvailableSlotDTO> getAvailableSlots(Long doctorId, LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return List.of();
+        }
+        List<Key> keys = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(startDate); !month.isAfter(YearMonth.from(endDate)); month = month.plusMonths(1)) {
+            keys.add(new Key(doctorId, month));
+        }
+        // bulk loads run outside the cache's locks, so a JDBC call never pins a virtual thread
+        Map<Key, MonthOccupancy> window = months.getAll(keys, this::load);
+        
+        List<AvailableSlotDTO> slots = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (!SlotGrid.isWorkingDay(date)) {
+                continue;
+            }
+            MonthOccupancy occupancy = window.get(new Key(doctorId, YearMonth.from(date)));
+            for (int slot = 0; slot < SlotGrid.HOURS.length; slot++) {
+                LocalDateTime slotStart = date.atTime(SlotGrid.HOURS[slot], 0);
+                slots.add(new AvailableSlotDTO(slotStart, slotStart.plus(SlotGrid.SLOT_LENGTH), !occupancy.isOccupied(date, slot)));
+            }
+        }
+        return slots;
+    }
+    
+    /** Records a non-cancelled appointment once the current transaction commits. */
+    public void book(Long doctorId, LocalDateTime start) {
+        Key key = new Key(doctorId, YearMonth.from(start));
+        AfterCommit.run(() -> months.asMap().computeIfPresent(key, (k, occupancy) -> occupancy.with(start)));
+    }
+    
+    /** Frees an appointment's slots once the current transaction commits. */
+    public void release(Long doctorId, LocalDateTime start) {
+        Key key = new Key(doctorId, YearMonth.from(start));
+        AfterCommit.run(() -> months.invalidate(key));
+    }
+    
+    /**
+     * Compares every cached month with the database and replaces the ones that drifted. Each run
+     * of consecutive months cached for a doctor is checked with one range query.
+     */
+    @Scheduled(
+            fixedDelayString = "${appointments.occupancy.verify-interval:PT15M}",
+            initialDelayString = "${appointments.occupancy.verify-interval:PT15M}")
+    public void verify() {
+        Map<Long, List<Key>> byDoctor = new HashMap<>();
+        for (Key key : List.copyOf(months.asMap().keySet())) {
+            byDoctor.computeIfAbsent(key.doctorId(), doctorId -> new ArrayList<>()).add(key);
+        }
+        int checked = 0;
+        int repaired = 0;
+        int queries = 0;
+        for (List<Key> keys : byDoctor.values()) {
+            keys.sort(Comparator.comparing(Key::month));
+            int runStart = 0;
+            for (int i = 1; i <= keys.size(); i++) {
+                if (i < keys.size() && keys.get(i).month().equals(keys.get(i - 1).month().plusMonths(1))) {
+                    continue;
+                }
+                // read before loading: a booking committed after this read is also in the fresh copy
+                Map<Key, MonthOccupancy> cached = new HashMap<>();
+                for (Key key : keys.subList(runStart, i)) {
+                    MonthOccupancy occupancy = months.policy().getIfPresentQuietly(key);
+                    if (occupancy != null) {
+                        cached.put(key, occupancy);
+                    }
+                }
+                runStart = i;
+                if (cached.isEmpty()) {
+                    continue;
+                }
+                Map<Key, MonthOccupancy> actual = load(cached.keySet());
+                queries++;
+                for (Map.Entry<Key, MonthOccupancy> entry : cached.entrySet()) {
+                    Key key = entry.getKey();
+                    checked++;
+                    if (!entry.getValue().sameAs(actual.get(key)) && months.asMap().replace(key, entry.getValue(), actual.get(key))) {
+                        repaired++;
+                        log.warn("Occupancy of doctor {} in {} did not match the database and was reloaded", key.doctorId(), key.month());
+                    }
+                }
+            }
+        }
+        log.debug("Occupancy check: {} months checked in {} queries, {} repaired", checked, queries, repaired);
+    }
+    
+    private Map<Key, MonthOccupancy> load(Set<? extends Key> keys) {
+        // keys of one call always belong to the same doctor
+        Long doctorId = keys.iterator().next().doctorId();
+        YearMonth first = keys.stream().map(Key::month).min(YearMonth::compareTo).orElseThrow();
+        YearMonth last = keys.stream().map(Key::month).max(YearMonth::compareTo).orElseThrow();
+        List<LocalDateTime> booked = appointmentRepository.findBookedTimes(
+                doctorId,
+                AppointmentStatus.CANCELLED,
+                first.atDay(1).atStartOfDay(),
+                last.plusMonths(1).atDay(1).atStartOfDay());
+        
+        Map<YearMonth, List<LocalDateTime>> byMonth = new HashMap<>();
+        for (LocalDateTime start : booked) {
+            byMonth.computeIfAbsent(YearMonth.from(start), month -> new ArrayList<>()).add(start);
+        }
+        Map<Key, MonthOccupancy> loaded = new HashMap<>();
+        for (Key key : keys) {
+            loaded.put(key, MonthOccupancy.of(key.month(), byMonth.getOrDefault(key.month(), List.of())));
+        }
+        return loaded;
+    }
+    
+    private record Key(Long doctorId, YearMonth month) {
+    }
+}
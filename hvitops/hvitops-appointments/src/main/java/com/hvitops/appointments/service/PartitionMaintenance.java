@@ -0,0 +1,33 @@
+package com.hvitops.appointments.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the monthly partitions of the appointments table created ahead of time, so bookings
+ * rarely fall into the default partition. The partitioning itself is defined by the V2 migration.
+ */
+@Component
+@Slf4j
+public class PartitionMaintenance {
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    
+    public PartitionMaintenance(
+            JdbcTemplate jdbcTemplate,
+            @Value("${appointments.partitions.months-ahead:12}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+    }
+    
+    @Scheduled(fixedDelayString = "${appointments.partitions.maintenance-interval:P1D}")
+    public void createPartitions() {
+        // existing partitions are skipped and concurrent runs are serialized by the function
+        jdbcTemplate.queryForObject("SELECT create_appointments_partitions(?)::text", String.class, monthsAhead);
+        log.debug("Appointment partitions ensured up to {} months ahead", monthsAhead);
+    }
+}
@@ -0,0 +1,75 @@
+package com.hvitops.appointments.service;
+
+import com.hvitops.appointments.dto.AvailableSlotDTO;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The fixed appointment grid: one-hour slots at 8-11h and 14-17h on weekdays.
+ */
+final class SlotGrid {
+    
+    static final Duration SLOT_LENGTH = Duration.ofHours(1);
+    
+    static final int[] HOURS = {8, 9, 10, 11, 14, 15, 16, 17};
+    
+    /** Earliest and latest start of an appointment; the database checks the same bounds. */
+    static final LocalTime FIRST_START = LocalTime.of(8, 0);
+    static final LocalTime LAST_START = LocalTime.of(17, 0);
+    
+    static final String OUTSIDE_WORKING_HOURS = "Appointments must start between 08:00 and 17:00";
+    
+    private SlotGrid() {
+    }
+    
+    static boolean isWorkingDay(LocalDate date) {
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        return dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY;
+    }
+    
+    /**
+     * Whether an appointment may start at {@code start}. Keeping every appointment within one day
+     * keeps overlapping ones in the same monthly partition, where the no-overlap constraint lives.
+     */
+    static boolean isWithinWorkingHours(LocalDateTime start) {
+        LocalTime time = start.toLocalTime();
+        return !time.isBefore(FIRST_START) && !time.isAfter(LAST_START);
+    }
+    
+    /** Whether an appointment starting at {@code start} overlaps the slot starting at {@code slotStart}. */
+    static boolean overlaps(LocalDateTime start, LocalDateTime slotStart) {
+        return start.isBefore(slotStart.plus(SLOT_LENGTH)) && start.plus(SLOT_LENGTH).isAfter(slotStart);
+    }
+    
+    /**
+     * Lists every slot between the two dates, inclusive, and whether it is free. {@code booked} are
+     * the start times of the doctor's appointments in ascending order; slots and appointments are
+     * both walked once, in time order.
+     */
+    static List<AvailableSlotDTO> availability(LocalDate startDate, LocalDate endDate, List<LocalDateTime> booked) {
+        List<AvailableSlotDTO> slots = new ArrayList<>();
+        int next = 0;
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (!isWorkingDay(date)) {
+                continue;
+            }
+            for (int hour : HOURS) {
+                LocalDateTime slotStart = date.atTime(hour, 0);
+                LocalDateTime slotEnd = slotStart.plus(SLOT_LENGTH);
+                // all appointments last one slot, so one that ended before this slot also ended before the next ones
+                while (next < booked.size() && !booked.get(next).plus(SLOT_LENGTH).isAfter(slotStart)) {
+                    next++;
+                }
+                boolean available = next == booked.size() || !booked.get(next).isBefore(slotEnd);
+                slots.add(new AvailableSlotDTO(slotStart, slotEnd, available));
+            }
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,130 @@
+package com.hvitops.appointments.service;
+
+import com.hvitops.appointments.dto.StatsRebuildDTO;
+import com.hvitops.appointments.exception.AppointmentConflictException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Recomputes the appointment_daily_stats rollup from scratch, one transaction per month, several
+ * months at a time. Each month is aggregated from its own appointments partition while writers of
+ * that month wait on {@link AppointmentStatistics}' advisory lock, so no change is lost or counted
+ * twice.
+ */
+@Component
+@Slf4j
+public class StatisticsRebuild {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AppointmentStatistics appointmentStatistics;
+    private final int parallelism;
+    private final ReentrantLock running = new ReentrantLock();
+
+    public StatisticsRebuild(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            AppointmentStatistics appointmentStatistics,
+            @Value("${appointments.stats.rebuild-parallelism:4}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.appointmentStatistics = appointmentStatistics;
+        this.parallelism = parallelism;
+    }
+
+    @Scheduled(cron = "${appointments.stats.rebuild-cron:-}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    public StatsRebuildDTO rebuild() {
+        if (!running.tryLock()) {
+            throw new AppointmentConflictException("A statistics rebuild is already running");
+        }
+        try {
+            long started = System.nanoTime();
+            List<YearMonth> months = months();
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, months.size())));
+            long rows = 0;
+            try {
+                List<Future<Integer>> results = new ArrayList<>();
+                for (YearMonth month : months) {
+                    results.add(executor.submit(() -> rebuild(month)));
+                }
+                for (Future<Integer> result : results) {
+                    rows += result.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Statistics rebuild interrupted", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+            } finally {
+                executor.shutdownNow();
+                // months rebuilt before a failure are consistent, but the days in memory may predate them
+                appointmentStatistics.invalidateAll();
+            }
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            log.info("Appointment statistics rebuilt: {} months, {} rows in {} ms", months.size(), rows, millis);
+            return new StatsRebuildDTO(months.size(), rows, millis);
+        } finally {
+            running.unlock();
+        }
+    }
+
+    /** Every month with appointments or with rollup rows, so that stale rows are cleared too. */
+    private List<YearMonth> months() {
+        TreeSet<YearMonth> months = new TreeSet<>();
+        jdbcTemplate.query("SELECT min(scheduled_at) AS first, max(scheduled_at) AS last FROM appointments", row -> {
+            LocalDateTime first = row.getObject("first", LocalDateTime.class);
+            LocalDateTime last = row.getObject("last", LocalDateTime.class);
+            if (first != null) {
+                for (YearMonth month = YearMonth.from(first); !month.isAfter(YearMonth.from(last)); month = month.plusMonths(1)) {
+                    months.add(month);
+                }
+            }
+        });
+        jdbcTemplate.queryForList("SELECT DISTINCT CAST(date_trunc('month', day) AS DATE) FROM appointment_daily_stats", Date.class)
+                .forEach(month -> months.add(YearMonth.from(month.toLocalDate())));
+        return new ArrayList<>(months);
+    }
+
+    private int rebuild(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        Integer rows = transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?, ?)::text", String.class,
+                    AppointmentStatistics.LOCK_KEY, AppointmentStatistics.lockId(month));
+            jdbcTemplate.update("DELETE FROM appointment_daily_stats WHERE day >= ? AND day < ?", from, to);
+            // the range on scheduled_at limits the scan to the month's partition
+            return jdbcTemplate.update("""
+                    INSERT INTO appointment_daily_stats (day, doctor_id, scheduled, completed, cancelled)
+                    SELECT CAST(scheduled_at AS DATE), doctor_id,
+                           count(*) FILTER (WHERE status = 'SCHEDULED'),
+                           count(*) FILTER (WHERE status = 'COMPLETED'),
+                           count(*) FILTER (WHERE status = 'CANCELLED')
+                    FROM appointments
+                    WHERE scheduled_at >= ? AND scheduled_at < ?
+                    GROUP BY 1, 2
+                    """, from.atStartOfDay(), to.atStartOfDay());
+        });
+        return rows == null ? 0 : rows;
+    }
+}
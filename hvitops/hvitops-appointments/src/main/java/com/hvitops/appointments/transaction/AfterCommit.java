@@ -0,0 +1,27 @@
+package com.hvitops.appointments.transaction;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers updates of in-memory state until the current transaction commits, so a rolled-back
+ * write never shows up in a cache. Outside a transaction the action runs right away.
+ */
+public final class AfterCommit {
+    
+    private AfterCommit() {
+    }
+    
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
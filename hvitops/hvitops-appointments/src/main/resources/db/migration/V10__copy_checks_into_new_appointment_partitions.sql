@@ -0,0 +1,21 @@
+-- ATTACH PARTITION refuses a table that lacks the CHECK constraints of appointments, such as the
+-- working hours check of V8, so new monthly partitions are created with a copy of them.
+CREATE OR REPLACE FUNCTION create_appointments_partition(month_start DATE) RETURNS VOID AS $$
+DECLARE
+    range_start TIMESTAMP := date_trunc('month', month_start);
+    range_end TIMESTAMP := date_trunc('month', month_start) + INTERVAL '1 month';
+    partition_name TEXT := 'appointments_' || to_char(month_start, 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE appointments INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name);
+    EXECUTE format(
+        'WITH moved AS (DELETE FROM appointments_default WHERE scheduled_at >= %L AND scheduled_at < %L RETURNING *) '
+            || 'INSERT INTO %I SELECT * FROM moved',
+        range_start, range_end, partition_name);
+    EXECUTE format('ALTER TABLE appointments ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+        partition_name, range_start, range_end);
+    PERFORM add_appointments_no_overlap(partition_name);
+END;
+$$ LANGUAGE plpgsql;
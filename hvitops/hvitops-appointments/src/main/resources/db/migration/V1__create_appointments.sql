@@ -0,0 +1,35 @@
+-- Schema as it was before migrations were introduced. Databases created back then are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and start from V2.
+
+-- Needed to combine doctor_id equality with range overlap in one exclusion constraint
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+CREATE TABLE appointments (
+    id BIGSERIAL PRIMARY KEY,
+    patient_id BIGINT NOT NULL,
+    doctor_id BIGINT NOT NULL,
+    scheduled_at TIMESTAMP NOT NULL,
+    status VARCHAR(50) NOT NULL DEFAULT 'SCHEDULED',
+    notes TEXT,
+    medical_record_id VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    -- a doctor's non-cancelled appointments, one hour each, may not overlap
+    CONSTRAINT appointments_no_overlap EXCLUDE USING gist (
+        doctor_id WITH =,
+        tsrange(scheduled_at, scheduled_at + INTERVAL '1 hour') WITH &&
+    ) WHERE (status <> 'CANCELLED')
+);
+
+CREATE INDEX idx_appointments_patient_id ON appointments(patient_id);
+CREATE INDEX idx_appointments_doctor_id ON appointments(doctor_id);
+CREATE INDEX idx_appointments_status ON appointments(status);
+CREATE INDEX idx_appointments_doctor_scheduled ON appointments(doctor_id, scheduled_at);
+
+-- Seed data
+INSERT INTO appointments (patient_id, doctor_id, scheduled_at, status, notes, created_at, updated_at) VALUES
+(1, 101, '2026-01-25 10:00:00', 'SCHEDULED', 'Regular checkup', NOW(), NOW()),
+(2, 102, '2026-01-26 14:30:00', 'SCHEDULED', 'Follow-up consultation', NOW(), NOW()),
+(3, 101, '2026-01-27 09:15:00', 'COMPLETED', 'Annual physical examination', NOW(), NOW()),
+(1, 102, '2026-01-28 16:00:00', 'SCHEDULED', 'Blood pressure monitoring', NOW(), NOW());
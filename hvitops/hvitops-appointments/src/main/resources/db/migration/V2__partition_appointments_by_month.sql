@@ -0,0 +1,117 @@
+-- Partitions appointments by month of scheduled_at. Old months can then be taken out without
+-- touching the rest of the table:
+--   ALTER TABLE appointments DETACH PARTITION appointments_2024_01 CONCURRENTLY;
+-- Months are created ahead of time by create_appointments_partitions(), which the service
+-- calls on a schedule; rows outside every month land in appointments_default until theirs exists.
+
+-- databases baselined at V1 may predate the no-overlap constraint and its extension
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE appointments RENAME TO appointments_unpartitioned;
+-- tables created by the old init.sql got these columns from Hibernate, if the service ever ran
+ALTER TABLE appointments_unpartitioned ADD COLUMN IF NOT EXISTS medical_record_id VARCHAR(255);
+ALTER TABLE appointments_unpartitioned ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE appointments_unpartitioned RENAME CONSTRAINT appointments_pkey TO appointments_unpartitioned_pkey;
+DROP INDEX IF EXISTS idx_appointments_patient_id;
+DROP INDEX IF EXISTS idx_appointments_doctor_id;
+DROP INDEX IF EXISTS idx_appointments_status;
+DROP INDEX IF EXISTS idx_appointments_doctor_scheduled;
+
+CREATE TABLE appointments (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    patient_id BIGINT NOT NULL,
+    doctor_id BIGINT NOT NULL,
+    scheduled_at TIMESTAMP NOT NULL,
+    status VARCHAR(50) NOT NULL DEFAULT 'SCHEDULED',
+    notes TEXT,
+    medical_record_id VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    -- the partition key must be part of the primary key; this also serves lookups by id
+    PRIMARY KEY (id, scheduled_at)
+) PARTITION BY RANGE (scheduled_at);
+
+-- listings by patient, by doctor and overall are keyset-paginated on (scheduled_at, id);
+-- the doctor index also serves the slot range query
+CREATE INDEX idx_appointments_patient_scheduled ON appointments(patient_id, scheduled_at, id);
+CREATE INDEX idx_appointments_doctor_scheduled ON appointments(doctor_id, scheduled_at, id);
+CREATE INDEX idx_appointments_scheduled ON appointments(scheduled_at, id);
+
+-- PostgreSQL cannot enforce an exclusion constraint across partitions, so each partition gets
+-- its own. Appointments last one hour and are booked in working hours, so two that overlap are
+-- always in the same month.
+CREATE FUNCTION add_appointments_no_overlap(partition_name TEXT) RETURNS VOID AS $$
+BEGIN
+    EXECUTE format(
+        'ALTER TABLE %I ADD CONSTRAINT %I EXCLUDE USING gist ('
+            || 'doctor_id WITH =, tsrange(scheduled_at, scheduled_at + INTERVAL ''1 hour'') WITH &&'
+            || ') WHERE (status <> ''CANCELLED'')',
+        partition_name, partition_name || '_no_overlap');
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TABLE appointments_default PARTITION OF appointments DEFAULT;
+SELECT add_appointments_no_overlap('appointments_default');
+
+-- Creates the partition of the month containing month_start, moving any of its rows out of the
+-- default partition first. Does nothing if the partition already exists.
+CREATE FUNCTION create_appointments_partition(month_start DATE) RETURNS VOID AS $$
+DECLARE
+    range_start TIMESTAMP := date_trunc('month', month_start);
+    range_end TIMESTAMP := date_trunc('month', month_start) + INTERVAL '1 month';
+    partition_name TEXT := 'appointments_' || to_char(month_start, 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE appointments INCLUDING DEFAULTS)', partition_name);
+    EXECUTE format(
+        'WITH moved AS (DELETE FROM appointments_default WHERE scheduled_at >= %L AND scheduled_at < %L RETURNING *) '
+            || 'INSERT INTO %I SELECT * FROM moved',
+        range_start, range_end, partition_name);
+    EXECUTE format('ALTER TABLE appointments ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+        partition_name, range_start, range_end);
+    PERFORM add_appointments_no_overlap(partition_name);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Makes sure partitions exist from the current month to months_ahead months from now.
+CREATE FUNCTION create_appointments_partitions(months_ahead INT) RETURNS VOID AS $$
+BEGIN
+    -- several service instances run this on the same schedule
+    PERFORM pg_advisory_xact_lock(hashtext('create_appointments_partitions'));
+    FOR i IN 0..months_ahead LOOP
+        PERFORM create_appointments_partition((date_trunc('month', now()) + make_interval(months => i))::DATE);
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- one partition per month that already has appointments, up to a year ahead
+DO $$
+DECLARE
+    data_month DATE;
+BEGIN
+    FOR data_month IN SELECT DISTINCT date_trunc('month', scheduled_at)::DATE FROM appointments_unpartitioned LOOP
+        PERFORM create_appointments_partition(data_month);
+    END LOOP;
+    PERFORM create_appointments_partitions(12);
+END;
+$$;
+
+INSERT INTO appointments (id, patient_id, doctor_id, scheduled_at, status, notes, medical_record_id,
+                          created_at, updated_at, version)
+SELECT id, patient_id, doctor_id, scheduled_at, status, notes, medical_record_id,
+       created_at, updated_at, version
+FROM appointments_unpartitioned;
+
+SELECT setval(pg_get_serial_sequence('appointments', 'id'), COALESCE(MAX(id), 0) + 1, false) FROM appointments;
+
+DROP TABLE appointments_unpartitioned;
+
+-- the identity sequence was created while the old one still held its name
+DO $$
+BEGIN
+    EXECUTE format('ALTER SEQUENCE %s RENAME TO appointments_id_seq', pg_get_serial_sequence('appointments', 'id'));
+END;
+$$;
@@ -0,0 +1,18 @@
+-- Doctor directory, previously hard-coded in the service. The service keeps an in-memory copy
+-- and reloads it when the row count or the latest updated_at changes.
+
+CREATE TABLE doctors (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    specialty VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO doctors (id, name, specialty) VALUES
+(1, 'Dr. João Silva', 'Cardiologia'),
+(2, 'Dra. Maria Santos', 'Pediatria'),
+(3, 'Dr. Pedro Oliveira', 'Ortopedia'),
+(4, 'Dra. Ana Costa', 'Dermatologia');
+
+SELECT setval(pg_get_serial_sequence('doctors', 'id'), MAX(id)) FROM doctors;
@@ -0,0 +1,15 @@
+-- Transactional outbox: appointment events are inserted in the transaction that changes the
+-- appointment and pushed to the notifications queue in Redis by the service's relay, which
+-- deletes them once pushed. Ids come from a plain sequence, one at a time, so the events of an
+-- appointment, whose writes are serialized by its version, are numbered in commit order.
+
+CREATE TABLE appointment_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    appointment_id BIGINT NOT NULL,
+    event_type VARCHAR(32) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- rows are short-lived: vacuum well before the default 20% of dead rows piles up
+ALTER TABLE appointment_outbox SET (autovacuum_vacuum_scale_factor = 0.01, autovacuum_vacuum_threshold = 1000);
@@ -0,0 +1,19 @@
+-- Appointment reminders are scheduled in memory by the instance that owns the doctor's shard
+-- (doctor_id % number of shards). Instances take shards on a lease, renewed while they run, and
+-- record in fired_until how far the shard's reminders have been sent, so the next owner catches
+-- up from there after a restart or a failover.
+
+CREATE TABLE reminder_shards (
+    shard INT PRIMARY KEY,
+    owner VARCHAR(64),
+    lease_until TIMESTAMP,
+    fired_until TIMESTAMP
+);
+
+INSERT INTO reminder_shards (shard) SELECT generate_series(0, 15);
+
+-- running instances, so that shards are shared out fairly, including with ones that own none yet
+CREATE TABLE reminder_instances (
+    owner VARCHAR(64) PRIMARY KEY,
+    seen_until TIMESTAMP NOT NULL
+);
@@ -0,0 +1,20 @@
+-- Daily appointment counts per doctor and status, kept up to date by the service on every status
+-- change and served from memory by GET /appointments/stats. Counts are by the day an appointment
+-- is scheduled for. A rebuild recomputes them month by month from the appointments partitions.
+
+CREATE TABLE appointment_daily_stats (
+    day DATE NOT NULL,
+    doctor_id BIGINT NOT NULL,
+    scheduled INT NOT NULL DEFAULT 0,
+    completed INT NOT NULL DEFAULT 0,
+    cancelled INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, doctor_id)
+);
+
+INSERT INTO appointment_daily_stats (day, doctor_id, scheduled, completed, cancelled)
+SELECT CAST(scheduled_at AS DATE), doctor_id,
+       count(*) FILTER (WHERE status = 'SCHEDULED'),
+       count(*) FILTER (WHERE status = 'COMPLETED'),
+       count(*) FILTER (WHERE status = 'CANCELLED')
+FROM appointments
+GROUP BY 1, 2;
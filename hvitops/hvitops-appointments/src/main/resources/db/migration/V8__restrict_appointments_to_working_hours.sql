@@ -0,0 +1,21 @@
+-- The no-overlap constraints of V2 live on each monthly partition, so they only hold across the
+-- whole table if two overlapping appointments can never fall in different months. An appointment
+-- starting between 08:00 and 17:00 ends by 18:00 the same day, which this check guarantees;
+-- starts between slots (e.g. 14:30) stay allowed.
+
+DO $$
+DECLARE
+    outside BIGINT;
+BEGIN
+    SELECT count(*) INTO outside FROM appointments
+    WHERE CAST(scheduled_at AS TIME) NOT BETWEEN TIME '08:00' AND TIME '17:00';
+    IF outside > 0 THEN
+        RAISE EXCEPTION '% appointments start outside working hours (08:00-17:00); move or remove them before migrating', outside;
+    END IF;
+END;
+$$;
+
+-- added on the parent, so the existing partitions get it too; partitions created later copy it
+-- when they are created (V10), since ATTACH PARTITION refuses a table without it
+ALTER TABLE appointments ADD CONSTRAINT appointments_within_working_hours
+    CHECK (CAST(scheduled_at AS TIME) BETWEEN TIME '08:00' AND TIME '17:00');
@@ -0,0 +1,3 @@
+-- The reminder scheduler looks for the appointments other instances changed every few seconds,
+-- by updated_at.
+CREATE INDEX idx_appointments_updated ON appointments(updated_at);
@@ -0,0 +1,115 @@
+package com.hvitops.appointments.service;
+
+import com.hvitops.appointments.dto.AppointmentDTO;
+import com.hvitops.appointments.exception.AppointmentConflictException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Books the same doctor concurrently against a real PostgreSQL, where the no-overlap exclusion
+ * constraints of the migrations are the only thing standing between the requests.
+ */
+@SpringBootTest(properties = {
+        "appointments.outbox.relay-enabled=false",
+        "appointments.reminders.enabled=false"
+})
+@Testcontainers
+class AppointmentServiceConcurrencyTest {
+    
+    private static final int THREADS = 16;
+    
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+    
+    @Autowired
+    private AppointmentService appointmentService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void exactlyOneOfConcurrentBookingsOfTheSameSlotSucceeds() throws Exception {
+        LocalDateTime slot = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.TUESDAY)).atTime(10, 0);
+        
+        List<Outcome> outcomes = bookConcurrently(901L, i -> slot);
+        
+        assertThat(outcomes).filteredOn(Outcome.BOOKED::equals).hasSize(1);
+        assertThat(outcomes).filteredOn(Outcome.CONFLICT::equals).hasSize(THREADS - 1);
+        assertThat(bookedCount(901L)).isEqualTo(1);
+    }
+    
+    @Test
+    void overlappingBookingsAtDifferentStartsAreRejected() throws Exception {
+        LocalDateTime slot = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.WEDNESDAY)).atTime(14, 0);
+        
+        // starts 14:00, 14:15, 14:30 and 14:45: every pair overlaps
+        List<Outcome> outcomes = bookConcurrently(902L, i -> slot.plusMinutes(15L * (i % 4)));
+        
+        assertThat(outcomes).filteredOn(Outcome.BOOKED::equals).hasSize(1);
+        assertThat(bookedCount(902L)).isEqualTo(1);
+    }
+    
+    /** Starts every booking at once, each on its own thread and in its own transaction. */
+    private List<Outcome> bookConcurrently(long doctorId, IntFunction<LocalDateTime> startOf) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Outcome>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                AppointmentDTO dto = AppointmentDTO.builder()
+                        .patientId(1000L + i)
+                        .doctorId(doctorId)
+                        .scheduledAt(startOf.apply(i))
+                        .build();
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        appointmentService.createAppointment(dto);
+                        return Outcome.BOOKED;
+                    } catch (AppointmentConflictException e) {
+                        return Outcome.CONFLICT;
+                    }
+                }));
+            }
+            start.countDown();
+            List<Outcome> outcomes = new ArrayList<>();
+            for (Future<Outcome> future : futures) {
+                outcomes.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return outcomes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private int bookedCount(long doctorId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM appointments WHERE doctor_id = ? AND status <> 'CANCELLED'", Integer.class, doctorId);
+    }
+    
+    private enum Outcome {
+        BOOKED, CONFLICT
+    }
+}
@@ -0,0 +1,60 @@
+package com.hvitops.appointments.service;
+
+import com.hvitops.appointments.dto.AppointmentDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Creates partitions beyond the months the migrations created up front, which have to carry
+ * every CHECK constraint of the parent table to be attached.
+ */
+@SpringBootTest(properties = {
+        "appointments.outbox.relay-enabled=false",
+        "appointments.reminders.enabled=false"
+})
+@Testcontainers
+class PartitionMaintenanceTest {
+    
+    private static final int MONTHS_AHEAD = 18;
+    
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+    
+    @Autowired
+    private AppointmentService appointmentService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void bookingsBeyondTheMigratedMonthsLandInTheirOwnPartition() {
+        new PartitionMaintenance(jdbcTemplate, MONTHS_AHEAD).createPartitions();
+        
+        LocalDate month = LocalDate.now().withDayOfMonth(1).plusMonths(MONTHS_AHEAD);
+        LocalDateTime slot = month.with(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY)).atTime(9, 0);
+        Long id = appointmentService.createAppointment(AppointmentDTO.builder()
+                .patientId(1L)
+                .doctorId(903L)
+                .scheduledAt(slot)
+                .build()).getId();
+        
+        String partition = jdbcTemplate.queryForObject(
+                "SELECT tableoid::regclass::text FROM appointments WHERE id = ?", String.class, id);
+        assertThat(partition).isEqualTo("appointments_" + month.format(DateTimeFormatter.ofPattern("yyyy_MM")));
+    }
+}
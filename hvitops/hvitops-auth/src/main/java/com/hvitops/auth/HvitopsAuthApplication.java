@@ -2,8 +2,10 @@ package com.hvitops.auth;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class HvitopsAuthApplication {
     
     public static void main(String[] args) {
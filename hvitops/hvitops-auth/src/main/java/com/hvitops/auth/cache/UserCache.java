@@ -0,0 +1,129 @@
+package com.hvitops.auth.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.hvitops.auth.entity.User;
+import com.hvitops.auth.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of {@link UserSnapshot}s indexed by id and by email. Unknown emails are cached
+ * as well, for a much shorter time, so repeated logins with a wrong address do not reach the
+ * database. Entries are dropped by {@link UserCacheInvalidator} whenever a user is written.
+ *
+ * <p>Misses are loaded on a virtual thread and joined rather than inside Caffeine's compute, which
+ * holds a monitor: a JDBC call there would pin the caller's carrier thread in virtual-thread mode.
+ */
+@Component
+public class UserCache {
+    
+    private final UserRepository userRepository;
+    private final ExecutorService loader = Executors.newVirtualThreadPerTaskExecutor();
+    private final AsyncCache<Long, UserSnapshot> byId;
+    private final AsyncCache<String, Optional<UserSnapshot>> byEmail;
+    
+    public UserCache(
+            UserRepository userRepository,
+            @Value("${auth.user-cache.maximum-size:10000}") long maximumSize,
+            @Value("${auth.user-cache.ttl:10m}") Duration ttl,
+            @Value("${auth.user-cache.negative-ttl:30s}") Duration negativeTtl,
+            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .executor(loader)
+                .recordStats()
+                .buildAsync();
+        this.byEmail = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new EmailExpiry(ttl, negativeTtl))
+                .executor(loader)
+                .recordStats()
+                .buildAsync();
+        monitor(meterRegistry, byId.synchronous(), "auth.users.by-id");
+        monitor(meterRegistry, byEmail.synchronous(), "auth.users.by-email");
+    }
+    
+    @PreDestroy
+    void close() {
+        loader.shutdown();
+    }
+    
+    private static void monitor(MeterRegistry meterRegistry, Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        // CaffeineCacheMetrics only exports load timings for LoadingCache
+        FunctionTimer.builder("cache.load.duration", cache,
+                        c -> c.stats().loadCount(), c -> c.stats().totalLoadTime(), TimeUnit.NANOSECONDS)
+                .tag("cache", name)
+                .description("Time spent loading users from the database")
+                .register(meterRegistry);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+    
+    public Optional<UserSnapshot> findById(Long id) {
+        return Optional.ofNullable(byId.get(id,
+                key -> userRepository.findById(key).map(UserSnapshot::of).orElse(null)).join());
+    }
+    
+    public Optional<UserSnapshot> findByEmail(String email) {
+        Optional<UserSnapshot> user = byEmail.get(email,
+                key -> userRepository.findByEmail(key).map(UserSnapshot::of)).join();
+        user.ifPresent(found -> byId.put(found.id(), CompletableFuture.completedFuture(found)));
+        return user;
+    }
+    
+    /** Drops every entry that may describe this user, including a negative entry for its email. */
+    public void invalidate(User user) {
+        if (user.getId() != null) {
+            // an in-flight load is simply discarded, there is no old email to learn from it
+            CompletableFuture<UserSnapshot> cached = byId.getIfPresent(user.getId());
+            UserSnapshot snapshot = cached != null && cached.isDone() && !cached.isCompletedExceptionally()
+                    ? cached.join() : null;
+            if (snapshot != null) {
+                byEmail.synchronous().invalidate(snapshot.email());
+            }
+            byId.synchronous().invalidate(user.getId());
+        }
+        if (user.getEmail() != null) {
+            byEmail.synchronous().invalidate(user.getEmail());
+        }
+    }
+    
+    private record EmailExpiry(Duration ttl, Duration negativeTtl)
+            implements Expiry<String, Optional<UserSnapshot>> {
+        
+        @Override
+        public long expireAfterCreate(String key, Optional<UserSnapshot> value, long currentTime) {
+            return (value.isPresent() ? ttl : negativeTtl).toNanos();
+        }
+        
+        @Override
+        public long expireAfterUpdate(
+                String key, Optional<UserSnapshot> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+        
+        @Override
+        public long expireAfterRead(
+                String key, Optional<UserSnapshot> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.hvitops.auth.cache;
+
+import com.hvitops.auth.entity.User;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import jakarta.persistence.PreUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener of {@link User} that keeps {@link UserCache} in step with writes. The
+ * entry is dropped right away and again after commit, so a concurrent read cannot put the
+ * pre-commit row back into the cache.
+ */
+@Component
+public class UserCacheInvalidator {
+    
+    private final UserCache userCache;
+    
+    // lazy: Hibernate asks for this listener while the EntityManagerFactory that UserCache needs is built
+    public UserCacheInvalidator(@Lazy UserCache userCache) {
+        this.userCache = userCache;
+    }
+    
+    @PrePersist
+    @PreUpdate
+    @PreRemove
+    void onWrite(User user) {
+        userCache.invalidate(user);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userCache.invalidate(user);
+                }
+            });
+        }
+    }
+}
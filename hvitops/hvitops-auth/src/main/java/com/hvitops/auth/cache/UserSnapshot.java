@@ -0,0 +1,13 @@
+package com.hvitops.auth.cache;
+
+import com.hvitops.auth.entity.User;
+import com.hvitops.auth.entity.UserRole;
+
+/** Immutable copy of a {@link User} row, safe to share between threads through the cache. */
+public record UserSnapshot(Long id, String email, String passwordHash, String name, UserRole role) {
+    
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(
+                user.getId(), user.getEmail(), user.getPasswordHash(), user.getName(), user.getRole());
+    }
+}
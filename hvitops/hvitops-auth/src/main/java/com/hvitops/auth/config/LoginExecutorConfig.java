@@ -0,0 +1,29 @@
+package com.hvitops.auth.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Bounded pool for the CPU-bound BCrypt checks of {@code /auth/login}, kept apart from the
+ * Tomcat request threads. When every thread is busy and the queue is full, new logins are
+ * rejected instead of piling up.
+ */
+@Configuration
+public class LoginExecutorConfig {
+    
+    @Bean
+    public ThreadPoolTaskExecutor loginExecutor(
+            @Value("${auth.login.threads:0}") int threads,
+            @Value("${auth.login.queue-capacity:100}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("login-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
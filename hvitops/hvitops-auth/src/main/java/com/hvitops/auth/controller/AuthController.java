@@ -3,8 +3,14 @@ package com.hvitops.auth.controller;
 import com.hvitops.auth.dto.AuthRequest;
 import com.hvitops.auth.dto.AuthResponse;
 import com.hvitops.auth.service.AuthService;
+import com.hvitops.auth.service.JwtService;
+import com.hvitops.auth.service.TokenRevocationService;
 import jakarta.validation.Valid;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,16 +22,42 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
     
     private final AuthService authService;
+    private final JwtService jwtService;
+    private final TokenRevocationService tokenRevocationService;
     
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthRequest request) {
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@Valid @RequestBody AuthRequest request) {
         try {
-            AuthResponse response = authService.login(request);
-            return ResponseEntity.ok(response);
+            return authService.login(request)
+                    .thenApply(ResponseEntity::ok)
+                    .exceptionally(this::loginFailed);
         } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+            return CompletableFuture.completedFuture(loginFailed(e));
+        }
+    }
+    
+    private ResponseEntity<AuthResponse> loginFailed(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
                     .body(null);
         }
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(null);
+    }
+    
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        try {
+            if (!authorization.startsWith("Bearer ")) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            tokenRevocationService.revoke(jwtService.verify(authorization.substring(7)));
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
     }
     
     @GetMapping("/validate")
@@ -0,0 +1,36 @@
+package com.hvitops.auth.controller;
+
+import com.hvitops.auth.service.TokenRevocationService;
+import com.hvitops.jwt.RevocationSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/** Revocation list consumed by the gateway. */
+@RestController
+@RequestMapping("/auth/revocations")
+@RequiredArgsConstructor
+public class RevocationController {
+    
+    private final TokenRevocationService tokenRevocationService;
+    
+    @GetMapping
+    public ResponseEntity<RevocationSnapshot> getSnapshot(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        RevocationSnapshot snapshot = tokenRevocationService.getSnapshot();
+        String etag = "\"" + snapshot.version() + "\"";
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(snapshot);
+    }
+    
+    @GetMapping("/{tokenId}")
+    public ResponseEntity<Map<String, Boolean>> isRevoked(@PathVariable String tokenId) {
+        return ResponseEntity.ok(Map.of("revoked", tokenRevocationService.isRevoked(tokenId)));
+    }
+}
@@ -0,0 +1,29 @@
+package com.hvitops.auth.repository;
+
+import com.hvitops.auth.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    
+    /** Tokens revoked before the cutoff and still valid at it. */
+    @Query("SELECT r.tokenId FROM RevokedToken r WHERE r.revokedAt < :cutoff AND r.expiresAt > :cutoff")
+    List<String> findTokenIdsRevokedBefore(LocalDateTime cutoff);
+    
+    @Query("SELECT r.tokenId FROM RevokedToken r WHERE r.revokedAt >= :since AND r.expiresAt > :now")
+    List<String> findActiveTokenIdsRevokedSince(LocalDateTime since, LocalDateTime now);
+    
+    boolean existsByTokenIdAndExpiresAtAfter(String tokenId, LocalDateTime now);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(LocalDateTime now);
+}
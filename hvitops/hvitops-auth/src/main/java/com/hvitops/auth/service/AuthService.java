@@ -1,44 +1,85 @@
 package com.hvitops.auth.service;
 
+import com.hvitops.auth.cache.UserCache;
+import com.hvitops.auth.cache.UserSnapshot;
 import com.hvitops.auth.dto.AuthRequest;
 import com.hvitops.auth.dto.AuthResponse;
-import com.hvitops.auth.entity.User;
 import com.hvitops.auth.repository.UserRepository;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class AuthService {
     
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor loginExecutor;
     
-    public AuthResponse login(AuthRequest request) {
-        User user = userRepository.findByEmail(request.getEmail())
+    @Value("${auth.bcrypt.strength:10}")
+    private int bcryptStrength;
+    
+    /**
+     * Verifies the password on the login executor. The returned future fails with a
+     * {@link java.util.concurrent.RejectedExecutionException} when the executor is saturated.
+     */
+    public CompletableFuture<AuthResponse> login(AuthRequest request) {
+        UserSnapshot user = userCache.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
         
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
+        return CompletableFuture.supplyAsync(() -> authenticate(user, request.getPassword()), loginExecutor);
+    }
+    
+    private AuthResponse authenticate(UserSnapshot user, String password) {
+        if (!passwordEncoder.matches(password, user.passwordHash())) {
             throw new RuntimeException("Senha inválida");
         }
         
+        if (needsRehash(user.passwordHash())) {
+            // the plain password is only available here, so migrate the hash to the current cost
+            String rehashed = passwordEncoder.encode(password);
+            userRepository.findById(user.id()).ifPresent(entity -> {
+                entity.setPasswordHash(rehashed);
+                userRepository.save(entity);
+            });
+            log.debug("Rehashed password of user {} with BCrypt cost {}", user.id(), bcryptStrength);
+        }
+        
         String token = jwtService.generateToken(user);
         
         return AuthResponse.builder()
                 .token(token)
                 .user(AuthResponse.UserDto.builder()
-                        .id(user.getId())
-                        .email(user.getEmail())
-                        .name(user.getName())
-                        .role(user.getRole())
+                        .id(user.id())
+                        .email(user.email())
+                        .name(user.name())
+                        .role(user.role())
                         .build())
                 .build();
     }
     
-    public User getUserById(Long id) {
-        return userRepository.findById(id)
+    private boolean needsRehash(String hash) {
+        // BCrypt hashes look like $2a$10$..., the two digits being the cost
+        if (passwordEncoder.upgradeEncoding(hash)) {
+            return true;
+        }
+        try {
+            return Integer.parseInt(hash.substring(4, 6)) != bcryptStrength;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+    
+    public UserSnapshot getUserById(Long id) {
+        return userCache.findById(id)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
     }
 }
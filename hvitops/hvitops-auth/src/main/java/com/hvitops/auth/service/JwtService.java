@@ -1,13 +1,16 @@
 package com.hvitops.auth.service;
 
-import com.hvitops.auth.entity.User;
-import io.jsonwebtoken.Claims;
+import com.hvitops.auth.cache.UserSnapshot;
+import com.hvitops.jwt.HmacJwtVerifier;
+import com.hvitops.jwt.VerifiedJwt;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import javax.crypto.SecretKey;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -23,49 +26,48 @@ public class JwtService {
   @Value("${jwt.expiration:86400000}")
   private long jwtExpiration;
 
-  public String generateToken(User user) {
+  private SecretKey signingKey;
+  private HmacJwtVerifier jwtVerifier;
+
+  @PostConstruct
+  void init() {
+    byte[] secret = jwtSecret.getBytes(StandardCharsets.UTF_8);
+    signingKey = Keys.hmacShaKeyFor(secret);
+    jwtVerifier = new HmacJwtVerifier(secret);
+  }
+
+  public String generateToken(UserSnapshot user) {
     Map<String, Object> claims = new HashMap<>();
-    claims.put("role", user.getRole().toString());
-    claims.put("email", user.getEmail());
-    claims.put("name", user.getName());
+    claims.put("role", user.role().toString());
+    claims.put("email", user.email());
+    claims.put("name", user.name());
 
-    return createToken(claims, user.getId().toString());
+    return createToken(claims, user.id().toString());
   }
 
   private String createToken(Map<String, Object> claims, String subject) {
     Date now = new Date();
     Date expiryDate = new Date(now.getTime() + jwtExpiration);
 
-    SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-
     return Jwts.builder()
         .setClaims(claims)
+        .setId(UUID.randomUUID().toString())
         .setSubject(subject)
         .setIssuedAt(now)
         .setExpiration(expiryDate)
-        .signWith(key)
+        .signWith(signingKey)
         .compact();
   }
 
-  public String extractUserId(String token) {
-    return getClaimsFromToken(token).getSubject();
+  public VerifiedJwt verify(String token) {
+    return jwtVerifier.verify(token);
   }
 
-  public String extractRole(String token) {
-    return getClaimsFromToken(token).get("role", String.class);
-  }
-
-  private void validateToken(String token) {
-    SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-
-    Jwts.parser()
-        .verifyWith(key) // setSigningKey mudou para verifyWith
-        .build()
-        .parseSignedClaims(token); //
+  public String extractUserId(String token) {
+    return jwtVerifier.verify(token).subject();
   }
 
-  private Claims getClaimsFromToken(String token) {
-    SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-    return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+  public String extractRole(String token) {
+    return jwtVerifier.verify(token).role();
   }
 }
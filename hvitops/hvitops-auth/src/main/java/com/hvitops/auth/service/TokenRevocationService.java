@@ -0,0 +1,129 @@
+package com.hvitops.auth.service;
+
+import com.hvitops.auth.entity.RevokedToken;
+import com.hvitops.auth.repository.RevokedTokenRepository;
+import com.hvitops.jwt.RevocationFilter;
+import com.hvitops.jwt.RevocationSnapshot;
+import com.hvitops.jwt.VerifiedJwt;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the list of revoked, not yet expired tokens and publishes it as a {@link
+ * RevocationSnapshot}. The Bloom filter holds the tokens revoked before a cutoff; every snapshot
+ * reads the ones revoked since then from the database as the exact overflow set, so a revocation
+ * handled by any auth instance shows up in the snapshots of all of them.
+ *
+ * <p>Cutoffs fall on the rebuild interval, counted from the epoch, so instances rebuild the same
+ * filter and publish the same version for the same revocations. A rebuild forced by a large
+ * overflow uses a cutoff of its own; the versions of the instances agree again from the next
+ * scheduled rebuild.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationService {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    @Value("${auth.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${auth.revocation.overflow-limit:256}")
+    private int overflowLimit;
+
+    @Value("${auth.revocation.rebuild-interval:PT10M}")
+    private Duration rebuildInterval;
+
+    // how long a revocation may take to commit after its revoked_at
+    @Value("${auth.revocation.commit-lag:1m}")
+    private Duration commitLag;
+
+    private volatile Filter filter;
+
+    @PostConstruct
+    void init() {
+        rebuild(scheduledCutoff(LocalDateTime.now()));
+    }
+
+    public void revoke(VerifiedJwt token) {
+        if (token.tokenId() == null) {
+            throw new IllegalArgumentException("Token has no jti and cannot be revoked");
+        }
+        revokedTokenRepository.save(RevokedToken.builder()
+                .tokenId(token.tokenId())
+                .userId(token.subject() != null ? Long.valueOf(token.subject()) : null)
+                .expiresAt(LocalDateTime.ofInstant(token.expiresAt(), ZoneId.systemDefault()))
+                .build());
+    }
+
+    /** Exact check used to confirm Bloom filter hits. */
+    public boolean isRevoked(String tokenId) {
+        return revokedTokenRepository.existsByTokenIdAndExpiresAtAfter(tokenId, LocalDateTime.now());
+    }
+
+    public RevocationSnapshot getSnapshot() {
+        Filter current = filter;
+        Set<String> overflow = overflow(current, LocalDateTime.now());
+        // derived from the content only, so every instance answers with the same ETag
+        long version = current.cutoff().toEpochSecond(ZoneOffset.UTC) * 31 + List.copyOf(overflow).hashCode();
+        return new RevocationSnapshot(version, current.bloom().getNumBits(), current.bloom().getNumHashes(),
+                current.bits(), Set.copyOf(overflow));
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.check-interval:PT30S}")
+    public void rebuildIfDue() {
+        LocalDateTime now = LocalDateTime.now();
+        Filter current = filter;
+        LocalDateTime due = scheduledCutoff(now);
+        if (due.isAfter(current.cutoff())) {
+            rebuild(due);
+        } else if (overflow(current, now).size() > overflowLimit) {
+            LocalDateTime early = now.minus(commitLag);
+            if (early.isAfter(current.cutoff())) {
+                rebuild(early);
+            }
+        }
+    }
+
+    private void rebuild(LocalDateTime cutoff) {
+        // tokens expired by the cutoff are in no filter from now on
+        int purged = revokedTokenRepository.deleteExpired(cutoff);
+        List<String> revoked = revokedTokenRepository.findTokenIdsRevokedBefore(cutoff);
+        RevocationFilter bloom = RevocationFilter.of(revoked, falsePositiveRate);
+        filter = new Filter(cutoff, bloom, bloom.encodedBits());
+        log.debug("Revocation filter rebuilt up to {}: {} revoked, {} expired purged, {} bits",
+                cutoff, revoked.size(), purged, bloom.getNumBits());
+    }
+
+    /**
+     * Tokens revoked since the cutoff, plus those revoked shortly before it whose transaction may
+     * have committed after the filter was read.
+     */
+    private Set<String> overflow(Filter current, LocalDateTime now) {
+        Set<String> overflow = new TreeSet<>(revokedTokenRepository.findActiveTokenIdsRevokedSince(
+                current.cutoff().minus(commitLag), now));
+        overflow.removeIf(current.bloom()::mightContain);
+        return overflow;
+    }
+
+    /** The latest multiple of the rebuild interval that every revocation before it has committed by. */
+    private LocalDateTime scheduledCutoff(LocalDateTime now) {
+        long seconds = now.minus(commitLag).toEpochSecond(ZoneOffset.UTC);
+        long interval = rebuildInterval.toSeconds();
+        return LocalDateTime.ofEpochSecond(seconds - Math.floorMod(seconds, interval), 0, ZoneOffset.UTC);
+    }
+
+    private record Filter(LocalDateTime cutoff, RevocationFilter bloom, String bits) {}
+}
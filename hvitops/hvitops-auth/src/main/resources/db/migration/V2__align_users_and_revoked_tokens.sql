@@ -0,0 +1,34 @@
+-- Alinha o esquema com as entidades, que antes eram aplicadas pelo ddl-auto: update
+
+ALTER TABLE users ALTER COLUMN id TYPE BIGINT;
+ALTER SEQUENCE users_id_seq AS BIGINT;
+UPDATE users SET created_at = CURRENT_TIMESTAMP WHERE created_at IS NULL;
+UPDATE users SET updated_at = CURRENT_TIMESTAMP WHERE updated_at IS NULL;
+ALTER TABLE users ALTER COLUMN created_at SET NOT NULL;
+ALTER TABLE users ALTER COLUMN updated_at SET NOT NULL;
+
+-- redundante com o índice da restrição UNIQUE em email, usado por findByEmail
+DROP INDEX IF EXISTS idx_users_email;
+
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    token_id VARCHAR(255) PRIMARY KEY,
+    user_id BIGINT,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NOT NULL
+);
+
+-- a limpeza periódica remove tokens pela data de expiração
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at ON revoked_tokens(expires_at);
+
+-- o ddl-auto já havia criado um índice equivalente com nome gerado pelo Hibernate
+DO $$
+DECLARE
+    generated TEXT;
+BEGIN
+    FOR generated IN SELECT indexname FROM pg_indexes
+            WHERE tablename = 'revoked_tokens'
+              AND indexname NOT IN ('revoked_tokens_pkey', 'idx_revoked_tokens_expires_at') LOOP
+        EXECUTE format('DROP INDEX %I', generated);
+    END LOOP;
+END;
+$$;
@@ -0,0 +1,2 @@
+-- cada snapshot da lista de revogação lê os tokens revogados desde a última reconstrução do filtro
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked_at ON revoked_tokens(revoked_at);
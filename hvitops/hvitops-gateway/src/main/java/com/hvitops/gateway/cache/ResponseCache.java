@@ -0,0 +1,85 @@
+package com.hvitops.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * In-memory store of full upstream responses for near-static GET endpoints. The cache is bounded
+ * by the total body size of its entries; each entry carries its own time to live.
+ */
+@Component
+public class ResponseCache {
+
+  private final Cache<String, CachedResponse> cache;
+  private final long maxEntryBytes;
+
+  public ResponseCache(
+      @Value("${gateway.response-cache.max-size:16MB}") DataSize maxSize,
+      @Value("${gateway.response-cache.max-entry-size:512KB}") DataSize maxEntrySize,
+      MeterRegistry meterRegistry) {
+    this.maxEntryBytes = maxEntrySize.toBytes();
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumWeight(maxSize.toBytes())
+            .weigher((String key, CachedResponse value) -> value.body().length)
+            .expireAfter(new EntryExpiry())
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.response-cache");
+  }
+
+  public CachedResponse get(String key) {
+    return cache.getIfPresent(key);
+  }
+
+  public boolean isCacheable(int bodyLength) {
+    return bodyLength <= maxEntryBytes;
+  }
+
+  public void put(String key, CachedResponse response) {
+    cache.put(key, response);
+  }
+
+  /** Strong validator derived from the body bytes, so identical payloads share an ETag. */
+  public static String etag(byte[] body) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+      return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  public record CachedResponse(HttpHeaders headers, byte[] body, String etag, Duration ttl) {}
+
+  private static class EntryExpiry implements Expiry<String, CachedResponse> {
+
+    @Override
+    public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+      return value.ttl().toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        String key, CachedResponse value, long currentTime, long currentDuration) {
+      return value.ttl().toNanos();
+    }
+
+    @Override
+    public long expireAfterRead(
+        String key, CachedResponse value, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.hvitops.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.hvitops.jwt.VerifiedJwt;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of already verified tokens, keyed by the SHA-256 of the compact token so the raw
+ * bearer string is never retained. An entry never outlives the token's own {@code exp}.
+ */
+@Component
+public class VerifiedClaimsCache {
+
+  private final Cache<String, VerifiedJwt> cache;
+  private final Duration maxTtl;
+
+  public VerifiedClaimsCache(
+      @Value("${jwt.cache.maximum-size:10000}") long maximumSize,
+      @Value("${jwt.cache.ttl:5m}") Duration maxTtl,
+      MeterRegistry meterRegistry) {
+    this.maxTtl = maxTtl;
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new TokenExpiry())
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-claims");
+  }
+
+  /**
+   * Returns the cached verification result for {@code token}, running {@code verifier} on a miss.
+   * Exceptions thrown by the verifier propagate and nothing is cached.
+   */
+  public VerifiedJwt get(String token, Function<String, VerifiedJwt> verifier) {
+    return cache.get(digest(token), key -> verifier.apply(token));
+  }
+
+  private static String digest(String token) {
+    try {
+      MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  private class TokenExpiry implements Expiry<String, VerifiedJwt> {
+
+    @Override
+    public long expireAfterCreate(String key, VerifiedJwt value, long currentTime) {
+      long ttl = maxTtl.toNanos();
+      if (value.expiresAt() != null) {
+        long untilExp = Duration.between(Instant.now(), value.expiresAt()).toNanos();
+        ttl = Math.min(ttl, Math.max(untilExp, 0));
+      }
+      return ttl;
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        String key, VerifiedJwt value, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(
+        String key, VerifiedJwt value, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
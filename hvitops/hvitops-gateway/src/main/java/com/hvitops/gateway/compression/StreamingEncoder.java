@@ -0,0 +1,108 @@
+package com.hvitops.gateway.compression;
+
+import com.aayushatharva.brotli4j.encoder.BrotliOutputStream;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses a response body one chunk at a time. Each call returns the compressed bytes the
+ * encoder has produced so far, so memory stays bounded by the encoder window rather than by the
+ * body size. Not thread-safe; one instance per response.
+ */
+public final class StreamingEncoder implements AutoCloseable {
+
+  private final String encoding;
+  private final DrainableBuffer sink = new DrainableBuffer();
+  private final OutputStream stream;
+  private boolean closed;
+
+  private StreamingEncoder(String encoding, OutputStreamFactory factory) {
+    this.encoding = encoding;
+    try {
+      this.stream = factory.open(sink);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public static StreamingEncoder gzip(int level) {
+    return new StreamingEncoder(
+        "gzip",
+        out ->
+            new GZIPOutputStream(out, 8192, true) {
+              {
+                def.setLevel(level);
+              }
+            });
+  }
+
+  public static StreamingEncoder brotli(int quality) {
+    Encoder.Parameters parameters = new Encoder.Parameters().setQuality(quality);
+    return new StreamingEncoder("br", out -> new BrotliOutputStream(out, parameters));
+  }
+
+  /** The {@code Content-Encoding} token produced by this encoder. */
+  public String getEncoding() {
+    return encoding;
+  }
+
+  public byte[] encode(byte[] chunk) {
+    try {
+      stream.write(chunk);
+      return sink.drain();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Pushes out everything written so far, e.g. at the end of a streamed element. */
+  public byte[] flush() {
+    try {
+      stream.flush();
+      return sink.drain();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Writes the trailer; the encoder cannot be used afterwards. */
+  public byte[] finish() {
+    try {
+      closed = true;
+      stream.close();
+      return sink.drain();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Releases the encoder (native memory for brotli) when the body was not fully written. */
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      try {
+        stream.close();
+      } catch (IOException ignored) {
+        // response already abandoned
+      }
+    }
+  }
+
+  private interface OutputStreamFactory {
+    OutputStream open(OutputStream out) throws IOException;
+  }
+
+  private static final class DrainableBuffer extends ByteArrayOutputStream {
+
+    byte[] drain() {
+      byte[] bytes = toByteArray();
+      reset();
+      return bytes;
+    }
+  }
+}
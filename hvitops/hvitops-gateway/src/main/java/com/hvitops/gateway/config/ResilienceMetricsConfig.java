@@ -0,0 +1,82 @@
+package com.hvitops.gateway.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.core.registry.EntryAddedEvent;
+import io.github.resilience4j.core.registry.EntryRemovedEvent;
+import io.github.resilience4j.core.registry.EntryReplacedEvent;
+import io.github.resilience4j.core.registry.RegistryEventConsumer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Counts circuit breaker state transitions and bulkhead rejections. Gauges for breaker state and
+ * bulkhead capacity are already bound by resilience4j's own Micrometer integration.
+ */
+@Configuration
+public class ResilienceMetricsConfig {
+
+  private static final Logger log = LoggerFactory.getLogger(ResilienceMetricsConfig.class);
+
+  @Bean
+  public RegistryEventConsumer<CircuitBreaker> circuitBreakerTransitionMetrics(
+      MeterRegistry meterRegistry) {
+    return new RegistryEventConsumer<>() {
+      @Override
+      public void onEntryAddedEvent(EntryAddedEvent<CircuitBreaker> event) {
+        CircuitBreaker circuitBreaker = event.getAddedEntry();
+        circuitBreaker
+            .getEventPublisher()
+            .onStateTransition(
+                transition -> {
+                  log.warn(
+                      "Circuit breaker {} {}",
+                      circuitBreaker.getName(),
+                      transition.getStateTransition());
+                  meterRegistry
+                      .counter(
+                          "gateway.circuit-breaker.transitions",
+                          "name",
+                          circuitBreaker.getName(),
+                          "from",
+                          transition.getStateTransition().getFromState().name(),
+                          "to",
+                          transition.getStateTransition().getToState().name())
+                      .increment();
+                });
+      }
+
+      @Override
+      public void onEntryRemovedEvent(EntryRemovedEvent<CircuitBreaker> event) {}
+
+      @Override
+      public void onEntryReplacedEvent(EntryReplacedEvent<CircuitBreaker> event) {}
+    };
+  }
+
+  @Bean
+  public RegistryEventConsumer<Bulkhead> bulkheadRejectionMetrics(MeterRegistry meterRegistry) {
+    return new RegistryEventConsumer<>() {
+      @Override
+      public void onEntryAddedEvent(EntryAddedEvent<Bulkhead> event) {
+        Bulkhead bulkhead = event.getAddedEntry();
+        bulkhead
+            .getEventPublisher()
+            .onCallRejected(
+                rejected ->
+                    meterRegistry
+                        .counter("gateway.bulkhead.rejections", "name", bulkhead.getName())
+                        .increment());
+      }
+
+      @Override
+      public void onEntryRemovedEvent(EntryRemovedEvent<Bulkhead> event) {}
+
+      @Override
+      public void onEntryReplacedEvent(EntryReplacedEvent<Bulkhead> event) {}
+    };
+  }
+}
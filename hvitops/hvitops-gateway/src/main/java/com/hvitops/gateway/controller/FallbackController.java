@@ -0,0 +1,20 @@
+package com.hvitops.gateway.controller;
+
+import java.util.Map;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Target of the circuit breaker {@code fallbackUri} of each backend route. */
+@RestController
+@RequestMapping("/fallback")
+public class FallbackController {
+
+  @RequestMapping("/{service}")
+  public ResponseEntity<Map<String, String>> fallback(@PathVariable String service) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .body(Map.of("error", "Service temporarily unavailable", "service", service));
+  }
+}
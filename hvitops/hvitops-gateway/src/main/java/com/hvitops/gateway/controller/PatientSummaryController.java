@@ -0,0 +1,68 @@
+package com.hvitops.gateway.controller;
+
+import com.hvitops.gateway.dto.PatientSummary;
+import com.hvitops.gateway.security.RevocationList;
+import com.hvitops.gateway.security.TokenAuthenticator;
+import com.hvitops.gateway.service.PatientSummaryService;
+import com.hvitops.jwt.VerifiedJwt;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/patients")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class PatientSummaryController {
+
+  private final PatientSummaryService patientSummaryService;
+  private final TokenAuthenticator tokenAuthenticator;
+  private final RevocationList revocationList;
+
+  public PatientSummaryController(
+      PatientSummaryService patientSummaryService,
+      TokenAuthenticator tokenAuthenticator,
+      RevocationList revocationList) {
+    this.patientSummaryService = patientSummaryService;
+    this.tokenAuthenticator = tokenAuthenticator;
+    this.revocationList = revocationList;
+  }
+
+  @GetMapping("/{id}/summary")
+  public Mono<ResponseEntity<PatientSummary>> getSummary(
+      @PathVariable Long id, @RequestHeader HttpHeaders headers) {
+    HttpHeaders forwarded = new HttpHeaders();
+    VerifiedJwt verified;
+    try {
+      verified = tokenAuthenticator.authenticate(headers);
+      if (verified != null) {
+        forwarded.set(HttpHeaders.AUTHORIZATION, headers.getFirst(HttpHeaders.AUTHORIZATION));
+        forwarded.set("X-User-Id", verified.subject());
+        forwarded.set("X-User-Role", verified.role());
+      }
+    } catch (Exception e) {
+      return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+    if (verified == null) {
+      return patientSummaryService.getSummary(id, forwarded).map(ResponseEntity::ok);
+    }
+    // the same revocation rules as the routes behind JwtAuthenticationFilter
+    return revocationList
+        .resolve(verified.tokenId())
+        .<ResponseEntity<PatientSummary>>flatMap(
+            status ->
+                switch (status) {
+                  case NOT_REVOKED ->
+                      patientSummaryService.getSummary(id, forwarded).map(ResponseEntity::ok);
+                  case REVOKED -> Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+                  case UNCERTAIN ->
+                      Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+                });
+  }
+}
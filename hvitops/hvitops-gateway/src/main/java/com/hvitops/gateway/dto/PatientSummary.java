@@ -0,0 +1,7 @@
+package com.hvitops.gateway.dto;
+
+public record PatientSummary(
+    Long patientId,
+    SectionResult appointments,
+    SectionResult laboratoryTests,
+    SectionResult records) {}
@@ -0,0 +1,16 @@
+package com.hvitops.gateway.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SectionResult(SectionStatus status, Integer httpStatus, JsonNode data) {
+
+  public static SectionResult ok(JsonNode data) {
+    return new SectionResult(SectionStatus.OK, 200, data);
+  }
+
+  public static SectionResult failed(SectionStatus status, Integer httpStatus) {
+    return new SectionResult(status, httpStatus, null);
+  }
+}
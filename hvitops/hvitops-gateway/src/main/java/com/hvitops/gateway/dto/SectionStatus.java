@@ -0,0 +1,8 @@
+package com.hvitops.gateway.dto;
+
+public enum SectionStatus {
+  OK,
+  ERROR,
+  TIMEOUT,
+  UNAVAILABLE
+}
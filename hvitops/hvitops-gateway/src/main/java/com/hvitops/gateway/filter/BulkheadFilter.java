@@ -0,0 +1,62 @@
+package com.hvitops.gateway.filter;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import java.util.List;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caps the number of concurrent in-flight requests to a backend. Once the bulkhead named in the
+ * route config is full, further requests fail fast with 503 instead of queueing on the shared
+ * connection pool. Limits come from {@code resilience4j.bulkhead.instances.<name>}.
+ */
+@Component
+public class BulkheadFilter extends AbstractGatewayFilterFactory<BulkheadFilter.Config> {
+
+  private final BulkheadRegistry bulkheadRegistry;
+
+  public BulkheadFilter(BulkheadRegistry bulkheadRegistry) {
+    super(Config.class);
+    this.bulkheadRegistry = bulkheadRegistry;
+  }
+
+  @Override
+  public List<String> shortcutFieldOrder() {
+    return List.of("name");
+  }
+
+  @Override
+  public GatewayFilter apply(Config config) {
+    Bulkhead bulkhead = bulkheadRegistry.bulkhead(config.getName());
+    return (exchange, chain) ->
+        chain
+            .filter(exchange)
+            .transformDeferred(BulkheadOperator.of(bulkhead))
+            .onErrorResume(
+                BulkheadFullException.class,
+                e -> {
+                  exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                  exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+                  return exchange.getResponse().setComplete();
+                });
+  }
+
+  public static class Config {
+
+    private String name;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+}
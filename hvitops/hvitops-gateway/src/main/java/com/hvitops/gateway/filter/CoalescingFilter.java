@@ -0,0 +1,185 @@
+package com.hvitops.gateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Collapses identical GET requests that are in flight at the same time into a single upstream
+ * call. The first request (the leader) streams its response to its own client while keeping a
+ * copy; requests arriving before it completes wait and receive that copy. When the copy cannot be
+ * shared (too large, cookies, upstream failure) the waiters go upstream on their own.
+ */
+@Component
+public class CoalescingFilter extends AbstractGatewayFilterFactory<CoalescingFilter.Config> {
+
+  private final ConcurrentHashMap<String, Sinks.One<Optional<SharedResponse>>> inFlight =
+      new ConcurrentHashMap<>();
+  private final MeterRegistry meterRegistry;
+
+  public CoalescingFilter(MeterRegistry meterRegistry) {
+    super(Config.class);
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public GatewayFilter apply(Config config) {
+    // must wrap the response before NettyWriteResponseFilter captures it, and run after
+    // JwtAuthenticationFilter and RateLimitFilter so that every waiter is authenticated and counted
+    return new OrderedGatewayFilter(
+        (exchange, chain) -> filter(exchange, chain, config),
+        NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+  }
+
+  private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Config config) {
+    if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+      return chain.filter(exchange);
+    }
+
+    String routeId = routeId(exchange);
+    String key = coalescingKey(exchange, routeId, config);
+    Sinks.One<Optional<SharedResponse>> sink = Sinks.one();
+    Sinks.One<Optional<SharedResponse>> leader = inFlight.putIfAbsent(key, sink);
+    if (leader != null) {
+      return leader
+          .asMono()
+          .flatMap(
+              shared -> {
+                if (shared.isPresent()) {
+                  count(routeId, "coalesced");
+                  return write(exchange.getResponse(), shared.get());
+                }
+                count(routeId, "fallback");
+                return chain.filter(exchange);
+              });
+    }
+
+    count(routeId, "upstream");
+    long maxBytes = config.getMaxBufferSize().toBytes();
+    ServerHttpResponseDecorator capturing =
+        new ServerHttpResponseDecorator(exchange.getResponse()) {
+          @Override
+          public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            long declaredLength = getHeaders().getContentLength();
+            if (declaredLength > maxBytes || getHeaders().containsKey(HttpHeaders.SET_COOKIE)) {
+              return super.writeWith(body);
+            }
+            HttpStatusCode status = getStatusCode();
+            HttpHeaders headers = ResponseSnapshots.copyHeaders(getHeaders());
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            AtomicBoolean overflowed = new AtomicBoolean();
+            Flux<DataBuffer> tapped =
+                Flux.<DataBuffer>from(body)
+                    .doOnNext(
+                        buffer -> {
+                          if (overflowed.get()) {
+                            return;
+                          }
+                          if (copy.size() + buffer.readableByteCount() > maxBytes) {
+                            overflowed.set(true);
+                            copy.reset();
+                            sink.tryEmitValue(Optional.empty());
+                            return;
+                          }
+                          try (DataBuffer.ByteBufferIterator it = buffer.readableByteBuffers()) {
+                            while (it.hasNext()) {
+                              ByteBuffer chunk = it.next();
+                              byte[] bytes = new byte[chunk.remaining()];
+                              chunk.get(bytes);
+                              copy.writeBytes(bytes);
+                            }
+                          }
+                        });
+            return super.writeWith(tapped)
+                .doOnSuccess(
+                    done ->
+                        sink.tryEmitValue(
+                            Optional.of(new SharedResponse(status, headers, copy.toByteArray()))));
+          }
+        };
+    return chain
+        .filter(exchange.mutate().response(capturing).build())
+        .doFinally(
+            signal -> {
+              inFlight.remove(key, sink);
+              sink.tryEmitValue(Optional.empty());
+            });
+  }
+
+  private static Mono<Void> write(ServerHttpResponse response, SharedResponse shared) {
+    response.setStatusCode(shared.status());
+    // the waiter keeps the headers its own filters set, such as X-RateLimit-Remaining
+    shared.headers().forEach((name, values) -> response.getHeaders().putIfAbsent(name, values));
+    response.getHeaders().setContentLength(shared.body().length);
+    return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+  }
+
+  private void count(String routeId, String outcome) {
+    meterRegistry
+        .counter("gateway.coalescing.requests", "route", routeId, "outcome", outcome)
+        .increment();
+  }
+
+  private static String coalescingKey(ServerWebExchange exchange, String routeId, Config config) {
+    ServerHttpRequest request = exchange.getRequest();
+    String query = request.getURI().getRawQuery();
+    String key = routeId + " " + request.getPath().value() + (query != null ? "?" + query : "");
+    if (config.isPerUser()) {
+      key += " " + exchange.getAttributeOrDefault(JwtAuthenticationFilter.USER_ID_ATTR, "");
+    }
+    return key;
+  }
+
+  private static String routeId(ServerWebExchange exchange) {
+    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+    return route != null ? route.getId() : "";
+  }
+
+  private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {}
+
+  public static class Config {
+
+    private DataSize maxBufferSize = DataSize.ofMegabytes(1);
+    private boolean perUser;
+
+    public DataSize getMaxBufferSize() {
+      return maxBufferSize;
+    }
+
+    public void setMaxBufferSize(DataSize maxBufferSize) {
+      this.maxBufferSize = maxBufferSize;
+    }
+
+    public boolean isPerUser() {
+      return perUser;
+    }
+
+    public void setPerUser(boolean perUser) {
+      this.perUser = perUser;
+    }
+  }
+}
@@ -0,0 +1,303 @@
+package com.hvitops.gateway.filter;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.hvitops.gateway.compression.StreamingEncoder;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Compresses large upstream responses with brotli or gzip, as negotiated through {@code
+ * Accept-Encoding}. The body is encoded chunk by chunk as it arrives from the backend, never
+ * buffered whole. Responses below the size threshold, outside the content-type allowlist or
+ * already encoded pass through untouched.
+ *
+ * <p>Keep it off routes that share or cache response bodies ({@link ResponseCacheFilter}, {@link
+ * CoalescingFilter}): those would store the encoding negotiated for one client.
+ */
+@Component
+public class CompressionFilter extends AbstractGatewayFilterFactory<CompressionFilter.Config> {
+
+  private static final Logger log = LoggerFactory.getLogger(CompressionFilter.class);
+
+  private final MeterRegistry meterRegistry;
+  private final boolean brotliAvailable;
+
+  public CompressionFilter(MeterRegistry meterRegistry) {
+    super(Config.class);
+    this.meterRegistry = meterRegistry;
+    this.brotliAvailable = Brotli4jLoader.isAvailable();
+    if (!brotliAvailable) {
+      log.info(
+          "Brotli native library unavailable, compressing with gzip only: {}",
+          Brotli4jLoader.getUnavailabilityCause().toString());
+    }
+  }
+
+  @Override
+  public GatewayFilter apply(Config config) {
+    // must wrap the response before NettyWriteResponseFilter captures it
+    return new OrderedGatewayFilter(
+        (exchange, chain) -> filter(exchange, chain, config),
+        NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+  }
+
+  private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Config config) {
+    if (exchange.getRequest().getMethod() == HttpMethod.HEAD) {
+      return chain.filter(exchange);
+    }
+    String encoding =
+        negotiate(exchange.getRequest().getHeaders().get(HttpHeaders.ACCEPT_ENCODING));
+    if (encoding == null) {
+      return chain.filter(exchange);
+    }
+
+    String routeId = routeId(exchange);
+    ServerHttpResponseDecorator compressing =
+        new ServerHttpResponseDecorator(exchange.getResponse()) {
+          @Override
+          public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!shouldCompress(this, config)) {
+              return super.writeWith(body);
+            }
+            StreamingEncoder encoder = startEncoding(this, encoding, config);
+            Stats stats = new Stats();
+            Flux<DataBuffer> encoded =
+                Flux.<DataBuffer>from(body)
+                    .map(buffer -> encodeChunk(encoder, buffer, stats, bufferFactory()))
+                    .concatWith(
+                        Mono.fromCallable(() -> wrap(encoder.finish(), stats, bufferFactory())));
+            return super.writeWith(
+                nonEmpty(encoded).doFinally(signal -> complete(encoder, stats, routeId, signal)));
+          }
+
+          @Override
+          public Mono<Void> writeAndFlushWith(
+              Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            if (!shouldCompress(this, config)) {
+              return super.writeAndFlushWith(body);
+            }
+            // streamed media types: flush the encoder at the end of every element
+            StreamingEncoder encoder = startEncoding(this, encoding, config);
+            Stats stats = new Stats();
+            Flux<Flux<DataBuffer>> encoded =
+                Flux.<Publisher<? extends DataBuffer>>from(body)
+                    .map(
+                        element ->
+                            nonEmpty(
+                                Flux.<DataBuffer>from(element)
+                                    .map(
+                                        buffer ->
+                                            encodeChunk(encoder, buffer, stats, bufferFactory()))
+                                    .concatWith(
+                                        Mono.fromCallable(
+                                            () ->
+                                                wrap(encoder.flush(), stats, bufferFactory())))))
+                    .concatWith(
+                        Mono.fromCallable(
+                            () -> Flux.just(wrap(encoder.finish(), stats, bufferFactory()))));
+            return super.writeAndFlushWith(
+                encoded.doFinally(signal -> complete(encoder, stats, routeId, signal)));
+          }
+        };
+    return chain.filter(exchange.mutate().response(compressing).build());
+  }
+
+  private static Flux<DataBuffer> nonEmpty(Flux<DataBuffer> buffers) {
+    return buffers.filter(
+        buffer -> {
+          if (buffer.readableByteCount() > 0) {
+            return true;
+          }
+          DataBufferUtils.release(buffer);
+          return false;
+        });
+  }
+
+  private static StreamingEncoder startEncoding(
+      ServerHttpResponseDecorator response, String encoding, Config config) {
+    HttpHeaders headers = response.getHeaders();
+    headers.remove(HttpHeaders.CONTENT_LENGTH);
+    headers.set(HttpHeaders.CONTENT_ENCODING, encoding);
+    if (!headers.getVary().contains(HttpHeaders.ACCEPT_ENCODING)) {
+      headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    }
+    return encoding.equals("br")
+        ? StreamingEncoder.brotli(config.getBrotliQuality())
+        : StreamingEncoder.gzip(config.getGzipLevel());
+  }
+
+  private static DataBuffer encodeChunk(
+      StreamingEncoder encoder, DataBuffer buffer, Stats stats, DataBufferFactory factory) {
+    byte[] chunk = new byte[buffer.readableByteCount()];
+    buffer.read(chunk);
+    DataBufferUtils.release(buffer);
+    stats.original.addAndGet(chunk.length);
+    return wrap(encoder.encode(chunk), stats, factory);
+  }
+
+  private static DataBuffer wrap(byte[] bytes, Stats stats, DataBufferFactory factory) {
+    stats.encoded.addAndGet(bytes.length);
+    return factory.wrap(bytes);
+  }
+
+  private void complete(
+      StreamingEncoder encoder, Stats stats, String routeId, SignalType signal) {
+    encoder.close();
+    if (signal != SignalType.ON_COMPLETE) {
+      return;
+    }
+    DistributionSummary.builder("gateway.compression.bytes-saved")
+        .baseUnit("bytes")
+        .tag("route", routeId)
+        .tag("encoding", encoder.getEncoding())
+        .register(meterRegistry)
+        .record(Math.max(0, stats.original.get() - stats.encoded.get()));
+  }
+
+  private boolean shouldCompress(ServerHttpResponseDecorator response, Config config) {
+    HttpHeaders headers = response.getHeaders();
+    if (response.getStatusCode() != null
+        && (response.getStatusCode().value() == HttpStatus.NO_CONTENT.value()
+            || response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value())) {
+      return false;
+    }
+    if (headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+        || headers.containsKey(HttpHeaders.CONTENT_RANGE)) {
+      return false;
+    }
+    String cacheControl = headers.getCacheControl();
+    if (cacheControl != null && cacheControl.contains("no-transform")) {
+      return false;
+    }
+    long contentLength = headers.getContentLength();
+    if (contentLength >= 0 && contentLength < config.getMinResponseSize().toBytes()) {
+      return false;
+    }
+    MediaType contentType = headers.getContentType();
+    return contentType != null
+        && config.getMimeTypes().stream()
+            .map(MediaType::parseMediaType)
+            .anyMatch(allowed -> allowed.includes(contentType));
+  }
+
+  /**
+   * Picks the preferred encoding the client accepts: brotli when available, then gzip. Returns
+   * null when the client accepts neither.
+   */
+  private String negotiate(List<String> acceptEncoding) {
+    if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+      return null;
+    }
+    double br = -1;
+    double gzip = -1;
+    double wildcard = -1;
+    for (String header : acceptEncoding) {
+      for (String part : header.split(",")) {
+        String[] params = part.trim().split(";");
+        String coding = params[0].trim().toLowerCase();
+        double quality = 1;
+        for (int i = 1; i < params.length; i++) {
+          String param = params[i].trim();
+          if (param.startsWith("q=")) {
+            try {
+              quality = Double.parseDouble(param.substring(2));
+            } catch (NumberFormatException e) {
+              quality = 0;
+            }
+          }
+        }
+        switch (coding) {
+          case "br" -> br = quality;
+          case "gzip", "x-gzip" -> gzip = quality;
+          case "*" -> wildcard = quality;
+          default -> {}
+        }
+      }
+    }
+    br = br < 0 ? wildcard : br;
+    gzip = gzip < 0 ? wildcard : gzip;
+    if (brotliAvailable && br > 0 && br >= gzip) {
+      return "br";
+    }
+    return gzip > 0 ? "gzip" : null;
+  }
+
+  private static String routeId(ServerWebExchange exchange) {
+    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+    return route != null ? route.getId() : "";
+  }
+
+  private static final class Stats {
+
+    private final AtomicLong original = new AtomicLong();
+    private final AtomicLong encoded = new AtomicLong();
+  }
+
+  public static class Config {
+
+    private DataSize minResponseSize = DataSize.ofKilobytes(2);
+    private List<String> mimeTypes =
+        new ArrayList<>(List.of("application/json", "application/x-ndjson", "text/*"));
+    private int gzipLevel = 6;
+    private int brotliQuality = 4;
+
+    public DataSize getMinResponseSize() {
+      return minResponseSize;
+    }
+
+    public void setMinResponseSize(DataSize minResponseSize) {
+      this.minResponseSize = minResponseSize;
+    }
+
+    public List<String> getMimeTypes() {
+      return mimeTypes;
+    }
+
+    public void setMimeTypes(List<String> mimeTypes) {
+      this.mimeTypes = mimeTypes;
+    }
+
+    public int getGzipLevel() {
+      return gzipLevel;
+    }
+
+    public void setGzipLevel(int gzipLevel) {
+      this.gzipLevel = gzipLevel;
+    }
+
+    public int getBrotliQuality() {
+      return brotliQuality;
+    }
+
+    public void setBrotliQuality(int brotliQuality) {
+      this.brotliQuality = brotliQuality;
+    }
+  }
+}
@@ -1,15 +1,16 @@
 package com.hvitops.gateway.filter;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
-import java.nio.charset.StandardCharsets;
-import javax.crypto.SecretKey;
-import org.springframework.beans.factory.annotation.Value;
+import com.hvitops.gateway.security.RevocationList;
+import com.hvitops.gateway.security.RevocationList.Status;
+import com.hvitops.gateway.security.TokenAuthenticator;
+import com.hvitops.jwt.VerifiedJwt;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
@@ -18,55 +19,69 @@ import reactor.core.publisher.Mono;
 public class JwtAuthenticationFilter
     extends AbstractGatewayFilterFactory<JwtAuthenticationFilter.Config> {
 
-  @Value("${jwt.secret:hvitops-secret-key-for-jwt-token-validation-2024}")
-  private String jwtSecret;
+  /** Exchange attribute holding the authenticated user id for filters later in the chain. */
+  public static final String USER_ID_ATTR = "hvitops.userId";
 
-  public JwtAuthenticationFilter() {
+  /**
+   * Ahead of the filters that wrap the response at {@code WRITE_RESPONSE_FILTER_ORDER - 1}, so
+   * that no response is coalesced or served from a copy before the request is authenticated.
+   */
+  public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 3;
+
+  private final TokenAuthenticator tokenAuthenticator;
+  private final RevocationList revocationList;
+
+  public JwtAuthenticationFilter(
+      TokenAuthenticator tokenAuthenticator, RevocationList revocationList) {
     super(Config.class);
+    this.tokenAuthenticator = tokenAuthenticator;
+    this.revocationList = revocationList;
   }
 
   @Override
   public GatewayFilter apply(Config config) {
-    return (exchange, chain) -> {
-      try {
-        String token = extractToken(exchange);
-        if (token != null) {
-          validateToken(token);
-          Claims claims = getClaimsFromToken(token);
-          exchange
-              .getRequest()
-              .mutate()
-              .header("X-User-Id", claims.getSubject())
-              .header("X-User-Role", claims.get("role", String.class))
-              .build();
-        }
-      } catch (Exception e) {
-        return onError(exchange, "Unauthorized", HttpStatus.UNAUTHORIZED);
-      }
-      return chain.filter(exchange);
-    };
+    return new OrderedGatewayFilter(this::filter, ORDER);
   }
 
-  private String extractToken(ServerWebExchange exchange) {
-    String bearerToken = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
-    if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
-      return bearerToken.substring(7);
+  private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    ServerWebExchange authenticated = exchange;
+    VerifiedJwt verified;
+    try {
+      verified = tokenAuthenticator.authenticate(exchange.getRequest().getHeaders());
+      if (verified != null) {
+        ServerHttpRequest request =
+            exchange
+                .getRequest()
+                .mutate()
+                .header("X-User-Id", verified.subject())
+                .header("X-User-Role", verified.role())
+                .build();
+        authenticated = exchange.mutate().request(request).build();
+        if (verified.subject() != null) {
+          authenticated.getAttributes().put(USER_ID_ATTR, verified.subject());
+        }
+      }
+    } catch (Exception e) {
+      return onError(exchange, "Unauthorized", HttpStatus.UNAUTHORIZED);
+    }
+    if (verified == null) {
+      return chain.filter(authenticated);
     }
-    return null;
-  }
-
-  private void validateToken(String token) {
-    SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
 
-    Jwts.parser()
-        .verifyWith(key) // setSigningKey mudou para verifyWith
-        .build()
-        .parseSignedClaims(token); //
+    ServerWebExchange proceed = authenticated;
+    return revocationList
+        .resolve(verified.tokenId())
+        .flatMap(status -> proceedUnlessRevoked(status, proceed, chain));
   }
 
-  private Claims getClaimsFromToken(String token) {
-    SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-    return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+  private Mono<Void> proceedUnlessRevoked(
+      Status status, ServerWebExchange exchange, GatewayFilterChain chain) {
+    return switch (status) {
+      case NOT_REVOKED -> chain.filter(exchange);
+      case REVOKED -> onError(exchange, "Token revoked", HttpStatus.UNAUTHORIZED);
+      // auth could not confirm a filter hit; refuse rather than let a revoked token through
+      case UNCERTAIN -> onError(exchange, "Revocation unknown", HttpStatus.SERVICE_UNAVAILABLE);
+    };
   }
 
   private Mono<Void> onError(ServerWebExchange exchange, String err, HttpStatus httpStatus) {
@@ -0,0 +1,125 @@
+package com.hvitops.gateway.filter;
+
+import com.hvitops.gateway.ratelimit.TokenBucketStore;
+import com.hvitops.gateway.ratelimit.TokenBucketStore.Decision;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-process token-bucket rate limiting per client. Clients are identified by the JWT subject
+ * resolved by {@link JwtAuthenticationFilter}, which must run earlier on the route, or by their
+ * remote address when the request is anonymous.
+ */
+@Component
+public class RateLimitFilter extends AbstractGatewayFilterFactory<RateLimitFilter.Config> {
+
+  /** Right after {@link JwtAuthenticationFilter#ORDER}, so a rejected request is never coalesced. */
+  public static final int ORDER = JwtAuthenticationFilter.ORDER + 1;
+
+  private final TokenBucketStore buckets;
+  private final MeterRegistry meterRegistry;
+
+  public RateLimitFilter(TokenBucketStore buckets, MeterRegistry meterRegistry) {
+    super(Config.class);
+    this.buckets = buckets;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public GatewayFilter apply(Config config) {
+    long emissionNanos = config.getRefillPeriod().toNanos() / config.getRefillTokens();
+    return new OrderedGatewayFilter(
+        (exchange, chain) -> filter(exchange, chain, config, emissionNanos), ORDER);
+  }
+
+  private Mono<Void> filter(
+      ServerWebExchange exchange, GatewayFilterChain chain, Config config, long emissionNanos) {
+    String routeId = routeId(exchange);
+    String key = routeId + "|" + clientKey(exchange);
+    Decision decision = buckets.tryAcquire(key, emissionNanos, config.getCapacity());
+    if (decision.allowed()) {
+      counter(routeId, "allowed").increment();
+      exchange
+          .getResponse()
+          .getHeaders()
+          .set("X-RateLimit-Remaining", String.valueOf(decision.remaining()));
+      return chain.filter(exchange);
+    }
+    counter(routeId, "rejected").increment();
+    long retryAfterSeconds =
+        Math.max(1, TimeUnit.NANOSECONDS.toSeconds(decision.retryAfterNanos() + 999_999_999L));
+    ServerHttpResponse response = exchange.getResponse();
+    response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+    response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+    response.getHeaders().set("X-RateLimit-Remaining", "0");
+    return response.setComplete();
+  }
+
+  private Counter counter(String routeId, String outcome) {
+    return meterRegistry.counter(
+        "gateway.rate-limit.requests", "route", routeId, "outcome", outcome);
+  }
+
+  private static String clientKey(ServerWebExchange exchange) {
+    String userId = exchange.getAttribute(JwtAuthenticationFilter.USER_ID_ATTR);
+    if (userId != null) {
+      return "user:" + userId;
+    }
+    InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+    if (remote != null && remote.getAddress() != null) {
+      return "ip:" + remote.getAddress().getHostAddress();
+    }
+    return "ip:unknown";
+  }
+
+  private static String routeId(ServerWebExchange exchange) {
+    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+    return route != null ? route.getId() : "";
+  }
+
+  public static class Config {
+
+    private int capacity = 20;
+    private int refillTokens = 10;
+    private Duration refillPeriod = Duration.ofSeconds(1);
+
+    public int getCapacity() {
+      return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+      this.capacity = capacity;
+    }
+
+    public int getRefillTokens() {
+      return refillTokens;
+    }
+
+    public void setRefillTokens(int refillTokens) {
+      this.refillTokens = refillTokens;
+    }
+
+    public Duration getRefillPeriod() {
+      return refillPeriod;
+    }
+
+    public void setRefillPeriod(Duration refillPeriod) {
+      this.refillPeriod = refillPeriod;
+    }
+  }
+}
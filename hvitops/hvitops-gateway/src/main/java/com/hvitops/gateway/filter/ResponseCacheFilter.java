@@ -0,0 +1,154 @@
+package com.hvitops.gateway.filter;
+
+import com.hvitops.gateway.cache.ResponseCache;
+import com.hvitops.gateway.cache.ResponseCache.CachedResponse;
+import java.time.Duration;
+import java.util.List;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves GET responses of catalog routes from {@link ResponseCache} and answers {@code
+ * If-None-Match} with 304 at the gateway, so cache hits never reach the backend.
+ */
+@Component
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+  private final ResponseCache responseCache;
+
+  public ResponseCacheFilter(ResponseCache responseCache) {
+    super(Config.class);
+    this.responseCache = responseCache;
+  }
+
+  @Override
+  public List<String> shortcutFieldOrder() {
+    return List.of("ttl");
+  }
+
+  @Override
+  public GatewayFilter apply(Config config) {
+    // must wrap the response before NettyWriteResponseFilter captures it
+    return new OrderedGatewayFilter(
+        (exchange, chain) -> filter(exchange, chain, config),
+        NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+  }
+
+  private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Config config) {
+    ServerHttpRequest request = exchange.getRequest();
+    if (request.getMethod() != HttpMethod.GET) {
+      return chain.filter(exchange);
+    }
+
+    String key = cacheKey(exchange);
+    CachedResponse cached = responseCache.get(key);
+    if (cached != null) {
+      return writeCached(exchange, cached);
+    }
+
+    ServerHttpResponseDecorator caching =
+        new ServerHttpResponseDecorator(exchange.getResponse()) {
+          @Override
+          public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            int status = getStatusCode() != null ? getStatusCode().value() : 0;
+            if (!isStorable(status, getHeaders())) {
+              return super.writeWith(body);
+            }
+            return DataBufferUtils.join(Flux.from(body))
+                .flatMap(
+                    joined -> {
+                      byte[] bytes = new byte[joined.readableByteCount()];
+                      joined.read(bytes);
+                      DataBufferUtils.release(joined);
+                      if (!responseCache.isCacheable(bytes.length)) {
+                        return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                      }
+                      String etag = ResponseCache.etag(bytes);
+                      HttpHeaders headers = ResponseSnapshots.copyHeaders(getHeaders());
+                      responseCache.put(
+                          key, new CachedResponse(headers, bytes, etag, config.getTtl()));
+                      getHeaders().setETag(etag);
+                      if (matches(request, etag)) {
+                        return notModified(this);
+                      }
+                      return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    });
+          }
+        };
+    return chain.filter(exchange.mutate().response(caching).build());
+  }
+
+  private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+    ServerHttpResponse response = exchange.getResponse();
+    cached.headers().forEach((name, values) -> response.getHeaders().put(name, values));
+    response.getHeaders().setETag(cached.etag());
+    if (matches(exchange.getRequest(), cached.etag())) {
+      return notModified(response);
+    }
+    response.setStatusCode(HttpStatus.OK);
+    response.getHeaders().setContentLength(cached.body().length);
+    return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+  }
+
+  private static Mono<Void> notModified(ServerHttpResponse response) {
+    response.setStatusCode(HttpStatus.NOT_MODIFIED);
+    response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+    response.getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+    return response.setComplete();
+  }
+
+  private static boolean matches(ServerHttpRequest request, String etag) {
+    List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+    return ifNoneMatch.contains("*") || ifNoneMatch.contains(etag);
+  }
+
+  private static boolean isStorable(int status, HttpHeaders headers) {
+    if (status != HttpStatus.OK.value() || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+      return false;
+    }
+    String cacheControl = headers.getCacheControl();
+    return cacheControl == null
+        || !(cacheControl.contains(CacheControl.noStore().getHeaderValue())
+            || cacheControl.contains("private"));
+  }
+
+  private static String cacheKey(ServerWebExchange exchange) {
+    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+    String routeId = route != null ? route.getId() : "";
+    ServerHttpRequest request = exchange.getRequest();
+    String query = request.getURI().getRawQuery();
+    return routeId + " " + request.getPath().value() + (query != null ? "?" + query : "");
+  }
+
+  public static class Config {
+
+    private Duration ttl = Duration.ofMinutes(5);
+
+    public Duration getTtl() {
+      return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+      this.ttl = ttl;
+    }
+  }
+}
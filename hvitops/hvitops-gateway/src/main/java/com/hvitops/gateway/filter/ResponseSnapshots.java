@@ -0,0 +1,35 @@
+package com.hvitops.gateway.filter;
+
+import java.util.List;
+import java.util.Set;
+import org.springframework.http.HttpHeaders;
+
+/** Helpers for replaying an upstream response captured by one exchange onto another. */
+final class ResponseSnapshots {
+
+  private static final Set<String> EXCLUDED_HEADERS =
+      Set.of(
+          HttpHeaders.CONNECTION.toLowerCase(),
+          HttpHeaders.CONTENT_LENGTH.toLowerCase(),
+          HttpHeaders.DATE.toLowerCase(),
+          HttpHeaders.SET_COOKIE.toLowerCase(),
+          HttpHeaders.TRANSFER_ENCODING.toLowerCase());
+
+  private ResponseSnapshots() {}
+
+  /**
+   * Copies the end-to-end headers of a response. Framing, cookies and the CORS headers the gateway
+   * adds per request are left out.
+   */
+  static HttpHeaders copyHeaders(HttpHeaders source) {
+    HttpHeaders copy = new HttpHeaders();
+    source.forEach(
+        (name, values) -> {
+          String lower = name.toLowerCase();
+          if (!EXCLUDED_HEADERS.contains(lower) && !lower.startsWith("access-control-")) {
+            copy.put(name, List.copyOf(values));
+          }
+        });
+    return HttpHeaders.readOnlyHttpHeaders(copy);
+  }
+}
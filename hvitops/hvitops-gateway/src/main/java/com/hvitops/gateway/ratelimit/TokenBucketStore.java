@@ -0,0 +1,101 @@
+package com.hvitops.gateway.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token buckets for every rate-limited client, stored as a single "theoretical arrival time" per
+ * key (GCRA) and updated with CAS, so no request ever takes a lock.
+ *
+ * <p>Keys are spread over independent stripes. A bucket whose arrival time lies in the past is
+ * full, which makes it indistinguishable from a new one; the idle sweep drops those entries
+ * without changing any client's allowance.
+ */
+@Component
+public class TokenBucketStore {
+
+  private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+  private final ScheduledExecutorService sweeper;
+
+  @SuppressWarnings("unchecked")
+  public TokenBucketStore(
+      @Value("${gateway.rate-limit.stripes:16}") int stripeCount,
+      @Value("${gateway.rate-limit.sweep-interval:30s}") Duration sweepInterval,
+      MeterRegistry meterRegistry) {
+    this.stripes = new ConcurrentHashMap[Integer.highestOneBit(Math.max(stripeCount, 1))];
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new ConcurrentHashMap<>();
+    }
+    this.sweeper =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread thread = new Thread(r, "rate-limit-sweeper");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long sweepMillis = sweepInterval.toMillis();
+    sweeper.scheduleWithFixedDelay(this::sweep, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    Gauge.builder("gateway.rate-limit.keys", this, TokenBucketStore::size)
+        .description("Client buckets currently tracked")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Takes one token from the bucket of {@code key}.
+   *
+   * @param emissionNanos time to refill a single token
+   * @param capacity maximum burst size
+   */
+  public Decision tryAcquire(String key, long emissionNanos, int capacity) {
+    AtomicLong tat = stripe(key).computeIfAbsent(key, k -> new AtomicLong(System.nanoTime()));
+    long burst = emissionNanos * capacity;
+    while (true) {
+      long now = System.nanoTime();
+      long current = tat.get();
+      long next = (current - now < 0 ? now : current) + emissionNanos;
+      long debt = next - now;
+      if (debt > burst) {
+        return new Decision(false, 0, debt - burst);
+      }
+      if (tat.compareAndSet(current, next)) {
+        return new Decision(true, (burst - debt) / emissionNanos, 0);
+      }
+    }
+  }
+
+  public long size() {
+    long size = 0;
+    for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+      size += stripe.size();
+    }
+    return size;
+  }
+
+  void sweep() {
+    long now = System.nanoTime();
+    for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+      stripe.values().removeIf(tat -> tat.get() - now <= 0);
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    sweeper.shutdownNow();
+  }
+
+  private ConcurrentHashMap<String, AtomicLong> stripe(String key) {
+    int h = key.hashCode();
+    return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+  }
+
+  public record Decision(boolean allowed, long remaining, long retryAfterNanos) {}
+}
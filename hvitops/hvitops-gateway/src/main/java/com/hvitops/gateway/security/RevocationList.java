@@ -0,0 +1,181 @@
+package com.hvitops.gateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hvitops.jwt.RevocationFilter;
+import com.hvitops.jwt.RevocationSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-memory copy of the token revocation list published by {@code hvitops-auth}, refreshed by
+ * polling. {@link #check} answers from the exact overflow set and the Bloom filter without any
+ * I/O; only filter hits, which may be false positives, are confirmed with auth via {@link
+ * #confirm}. Until the first snapshot arrives no token is considered revoked.
+ */
+@Component
+public class RevocationList {
+
+  private static final Logger log = LoggerFactory.getLogger(RevocationList.class);
+
+  public enum Status {
+    NOT_REVOKED,
+    REVOKED,
+    /** Bloom filter hit that still has to be confirmed. */
+    UNCERTAIN
+  }
+
+  private final WebClient authClient;
+  private final Duration pollInterval;
+  private final Duration confirmTimeout;
+  private final Cache<String, Boolean> confirmations;
+  private final Counter revokedCounter;
+  private final Counter falsePositiveCounter;
+  private volatile State state;
+  private Disposable poller;
+
+  public RevocationList(
+      WebClient.Builder webClientBuilder,
+      @Value("${gateway.revocation.auth-uri:http://hvitops-auth:8085}") String authUri,
+      @Value("${gateway.revocation.poll-interval:5s}") Duration pollInterval,
+      @Value("${gateway.revocation.confirm-timeout:1s}") Duration confirmTimeout,
+      MeterRegistry meterRegistry) {
+    this.authClient = webClientBuilder.clone().baseUrl(authUri).build();
+    this.pollInterval = pollInterval;
+    this.confirmTimeout = confirmTimeout;
+    this.confirmations = Caffeine.newBuilder().maximumSize(10_000).build();
+    this.revokedCounter = meterRegistry.counter("gateway.revocation.rejected");
+    this.falsePositiveCounter = meterRegistry.counter("gateway.revocation.false-positives");
+  }
+
+  @PostConstruct
+  void start() {
+    poller =
+        Flux.interval(Duration.ZERO, pollInterval)
+            .onBackpressureDrop()
+            .concatMap(
+                tick ->
+                    refresh()
+                        .onErrorResume(
+                            e -> {
+                              log.warn("Cannot refresh revocation list: {}", e.toString());
+                              return Mono.empty();
+                            }))
+            .subscribe();
+  }
+
+  @PreDestroy
+  void stop() {
+    poller.dispose();
+  }
+
+  public Status check(String tokenId) {
+    State current = state;
+    if (tokenId == null || current == null) {
+      return Status.NOT_REVOKED;
+    }
+    if (current.overflow().contains(tokenId)) {
+      revokedCounter.increment();
+      return Status.REVOKED;
+    }
+    if (!current.filter().mightContain(tokenId)) {
+      return Status.NOT_REVOKED;
+    }
+    Boolean confirmed = confirmations.getIfPresent(tokenId);
+    if (confirmed == null) {
+      return Status.UNCERTAIN;
+    }
+    if (confirmed) {
+      revokedCounter.increment();
+    }
+    return confirmed ? Status.REVOKED : Status.NOT_REVOKED;
+  }
+
+  /**
+   * {@link #check}, followed by {@link #confirm} for a Bloom filter hit. Still {@link
+   * Status#UNCERTAIN} when auth cannot be reached, which callers must treat as a refusal.
+   */
+  public Mono<Status> resolve(String tokenId) {
+    Status status = check(tokenId);
+    if (status != Status.UNCERTAIN) {
+      return Mono.just(status);
+    }
+    return confirm(tokenId)
+        .map(revoked -> revoked ? Status.REVOKED : Status.NOT_REVOKED)
+        .onErrorReturn(Status.UNCERTAIN);
+  }
+
+  /** Asks auth whether a token hit by the Bloom filter is really revoked. */
+  public Mono<Boolean> confirm(String tokenId) {
+    return authClient
+        .get()
+        .uri("/auth/revocations/{tokenId}", tokenId)
+        .retrieve()
+        .bodyToMono(new ParameterizedTypeReference<Map<String, Boolean>>() {})
+        .map(body -> Boolean.TRUE.equals(body.get("revoked")))
+        .timeout(confirmTimeout)
+        .doOnNext(
+            revoked -> {
+              confirmations.put(tokenId, revoked);
+              if (revoked) {
+                revokedCounter.increment();
+              } else {
+                falsePositiveCounter.increment();
+              }
+            });
+  }
+
+  private Mono<Void> refresh() {
+    State current = state;
+    return authClient
+        .get()
+        .uri("/auth/revocations")
+        .headers(
+            headers -> {
+              if (current != null) {
+                headers.setIfNoneMatch(current.etag());
+              }
+            })
+        .exchangeToMono(
+            response -> {
+              if (response.statusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+                return response.releaseBody();
+              }
+              if (!response.statusCode().is2xxSuccessful()) {
+                return response.createError();
+              }
+              String etag = response.headers().asHttpHeaders().getETag();
+              return response
+                  .bodyToMono(RevocationSnapshot.class)
+                  .doOnNext(
+                      snapshot -> {
+                        state = new State(etag, snapshot.filter(), Set.copyOf(snapshot.overflow()));
+                        // a token confirmed as not revoked may have been revoked since
+                        confirmations.invalidateAll();
+                        log.debug(
+                            "Revocation list {}: {} bits, {} exact",
+                            snapshot.version(),
+                            snapshot.numBits(),
+                            snapshot.overflow().size());
+                      })
+                  .then();
+            });
+  }
+
+  private record State(String etag, RevocationFilter filter, Set<String> overflow) {}
+}
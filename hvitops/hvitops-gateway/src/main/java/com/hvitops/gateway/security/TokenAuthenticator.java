@@ -0,0 +1,37 @@
+package com.hvitops.gateway.security;
+
+import com.hvitops.gateway.cache.VerifiedClaimsCache;
+import com.hvitops.jwt.HmacJwtVerifier;
+import com.hvitops.jwt.VerifiedJwt;
+import java.nio.charset.StandardCharsets;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TokenAuthenticator {
+
+  private final HmacJwtVerifier jwtVerifier;
+  private final VerifiedClaimsCache claimsCache;
+
+  public TokenAuthenticator(
+      @Value("${jwt.secret:hvitops-secret-key-for-jwt-token-validation-2024}") String jwtSecret,
+      VerifiedClaimsCache claimsCache) {
+    this.jwtVerifier = new HmacJwtVerifier(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    this.claimsCache = claimsCache;
+  }
+
+  /**
+   * Verifies the bearer token of a request.
+   *
+   * @return the verified token, or {@code null} when the request carries no bearer token
+   * @throws com.hvitops.jwt.JwtVerificationException if the token is invalid or expired
+   */
+  public VerifiedJwt authenticate(HttpHeaders headers) {
+    String bearerToken = headers.getFirst(HttpHeaders.AUTHORIZATION);
+    if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
+      return claimsCache.get(bearerToken.substring(7), jwtVerifier::verify);
+    }
+    return null;
+  }
+}
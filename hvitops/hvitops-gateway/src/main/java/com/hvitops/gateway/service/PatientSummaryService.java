@@ -0,0 +1,104 @@
+package com.hvitops.gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.hvitops.gateway.dto.PatientSummary;
+import com.hvitops.gateway.dto.SectionResult;
+import com.hvitops.gateway.dto.SectionStatus;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Builds the patient dashboard view by querying appointments, laboratory tests and records in
+ * parallel. A slow or failing backend only degrades its own section, and backends whose circuit
+ * breaker is open are skipped.
+ */
+@Service
+public class PatientSummaryService {
+
+  private static final Logger log = LoggerFactory.getLogger(PatientSummaryService.class);
+
+  private final WebClient appointmentsClient;
+  private final WebClient laboratoryTestsClient;
+  private final WebClient recordsClient;
+  private final CircuitBreakerRegistry circuitBreakerRegistry;
+  private final Duration timeout;
+
+  public PatientSummaryService(
+      WebClient.Builder webClientBuilder,
+      CircuitBreakerRegistry circuitBreakerRegistry,
+      @Value("${gateway.patient-summary.appointments-uri:http://hvitops-appointments:8081}")
+          String appointmentsUri,
+      @Value("${gateway.patient-summary.laboratory-tests-uri:http://hvitops-laboratory-tests:8082}")
+          String laboratoryTestsUri,
+      @Value("${gateway.patient-summary.records-uri:http://hvitops-records:8083}")
+          String recordsUri,
+      @Value("${gateway.patient-summary.timeout:2s}") Duration timeout) {
+    this.appointmentsClient = webClientBuilder.clone().baseUrl(appointmentsUri).build();
+    this.laboratoryTestsClient = webClientBuilder.clone().baseUrl(laboratoryTestsUri).build();
+    this.recordsClient = webClientBuilder.clone().baseUrl(recordsUri).build();
+    this.circuitBreakerRegistry = circuitBreakerRegistry;
+    this.timeout = timeout;
+  }
+
+  public Mono<PatientSummary> getSummary(Long patientId, HttpHeaders forwardedHeaders) {
+    return Mono.zip(
+            fetch(
+                appointmentsClient,
+                "appointments",
+                "/appointments/patient/{id}",
+                patientId,
+                forwardedHeaders),
+            fetch(
+                laboratoryTestsClient,
+                "laboratory-tests",
+                "/laboratory-tests/patient/{id}",
+                patientId,
+                forwardedHeaders),
+            fetch(recordsClient, "records", "/records/patient/{id}", patientId, forwardedHeaders))
+        .map(
+            sections ->
+                new PatientSummary(
+                    patientId, sections.getT1(), sections.getT2(), sections.getT3()));
+  }
+
+  private Mono<SectionResult> fetch(
+      WebClient client,
+      String backend,
+      String path,
+      Long patientId,
+      HttpHeaders forwardedHeaders) {
+    CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(backend);
+    return client
+        .get()
+        .uri(path, patientId)
+        .headers(headers -> headers.addAll(forwardedHeaders))
+        .retrieve()
+        .bodyToMono(JsonNode.class)
+        .map(SectionResult::ok)
+        .timeout(timeout)
+        .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+        .onErrorResume(
+            e -> {
+              log.debug("Patient summary section {} failed: {}", path, e.toString());
+              if (e instanceof TimeoutException) {
+                return Mono.just(SectionResult.failed(SectionStatus.TIMEOUT, null));
+              }
+              if (e instanceof WebClientResponseException response) {
+                return Mono.just(
+                    SectionResult.failed(SectionStatus.ERROR, response.getStatusCode().value()));
+              }
+              return Mono.just(SectionResult.failed(SectionStatus.UNAVAILABLE, null));
+            });
+  }
+}
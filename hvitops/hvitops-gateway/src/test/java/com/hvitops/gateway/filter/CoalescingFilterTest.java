@@ -0,0 +1,151 @@
+package com.hvitops.gateway.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.hvitops.gateway.cache.VerifiedClaimsCache;
+import com.hvitops.gateway.security.RevocationList;
+import com.hvitops.gateway.security.TokenAuthenticator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Runs the filters of the {@code appointments-coalesced} route against an upstream that answers
+ * only when released, so that requests arrive while the first one is in flight.
+ */
+class CoalescingFilterTest {
+
+  private static final String SECRET = "hvitops-secret-key-for-jwt-token-validation-2024";
+  private static final byte[] BODY = "[{\"doctorId\":101}]".getBytes(StandardCharsets.UTF_8);
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AtomicInteger upstreamCalls = new AtomicInteger();
+  private final Sinks.Empty<Void> release = Sinks.empty();
+  private final List<GatewayFilter> route = route();
+
+  @Test
+  void waiterWithInvalidTokenIsRejectedInsteadOfCoalesced() throws Exception {
+    MockServerWebExchange leader = exchange(null);
+    MockServerWebExchange waiter = exchange("Bearer not-a-token");
+
+    CompletableFuture<Void> leading = run(leader).toFuture();
+    run(waiter).block(Duration.ofSeconds(5));
+
+    assertThat(waiter.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    assertThat(waiter.getResponse().getBodyAsString().block()).isEmpty();
+
+    release.tryEmitEmpty();
+    leading.get(5, TimeUnit.SECONDS);
+    assertThat(leader.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(upstreamCalls).hasValue(1);
+  }
+
+  @Test
+  void anonymousWaiterGetsTheLeadersResponse() throws Exception {
+    MockServerWebExchange leader = exchange(null);
+    MockServerWebExchange waiter = exchange(null);
+
+    CompletableFuture<Void> leading = run(leader).toFuture();
+    CompletableFuture<Void> waiting = run(waiter).toFuture();
+    release.tryEmitEmpty();
+    leading.get(5, TimeUnit.SECONDS);
+    waiting.get(5, TimeUnit.SECONDS);
+
+    assertThat(waiter.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(waiter.getResponse().getBodyAsString().block())
+        .isEqualTo(new String(BODY, StandardCharsets.UTF_8));
+    assertThat(upstreamCalls).hasValue(1);
+  }
+
+  private List<GatewayFilter> route() {
+    TokenAuthenticator tokenAuthenticator =
+        new TokenAuthenticator(
+            SECRET, new VerifiedClaimsCache(100, Duration.ofMinutes(5), meterRegistry));
+    // never started, so it holds no snapshot and considers no token revoked
+    RevocationList revocationList =
+        new RevocationList(
+            WebClient.builder(),
+            "http://localhost:1",
+            Duration.ofSeconds(5),
+            Duration.ofSeconds(1),
+            meterRegistry);
+    return List.of(
+        new JwtAuthenticationFilter(tokenAuthenticator, revocationList)
+            .apply(new JwtAuthenticationFilter.Config()),
+        new CoalescingFilter(meterRegistry).apply(new CoalescingFilter.Config()));
+  }
+
+  private Mono<Void> run(ServerWebExchange exchange) {
+    // ordered the way RouteDefinitionRouteLocator does: filters without an order by position
+    List<GatewayFilter> filters = new ArrayList<>();
+    for (int i = 0; i < route.size(); i++) {
+      GatewayFilter filter = route.get(i);
+      filters.add(filter instanceof Ordered ? filter : new OrderedGatewayFilter(filter, i + 1));
+    }
+    AnnotationAwareOrderComparator.sort(filters);
+    return new Chain(filters, 0).filter(exchange);
+  }
+
+  private Mono<Void> upstream(ServerWebExchange exchange) {
+    upstreamCalls.incrementAndGet();
+    ServerHttpResponse response = exchange.getResponse();
+    return release
+        .asMono()
+        .then(
+            Mono.defer(
+                () -> {
+                  response.setStatusCode(HttpStatus.OK);
+                  response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                  return response.writeWith(Mono.just(response.bufferFactory().wrap(BODY)));
+                }));
+  }
+
+  private static MockServerWebExchange exchange(String authorization) {
+    MockServerHttpRequest.BaseBuilder<?> request =
+        MockServerHttpRequest.get("/appointments/slots/101?startDate=2026-02-02");
+    if (authorization != null) {
+      request.header(HttpHeaders.AUTHORIZATION, authorization);
+    }
+    return MockServerWebExchange.from(request);
+  }
+
+  private class Chain implements GatewayFilterChain {
+
+    private final List<GatewayFilter> filters;
+    private final int index;
+
+    Chain(List<GatewayFilter> filters, int index) {
+      this.filters = filters;
+      this.index = index;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange) {
+      if (index == filters.size()) {
+        return upstream(exchange);
+      }
+      return filters.get(index).filter(exchange, new Chain(filters, index + 1));
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package com.hvitops.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Verifies the same token, shaped like the ones {@code hvitops-auth} issues, with {@link
+ * HmacJwtVerifier} and with the jjwt parse the gateway and auth used before. Run with {@code -prof
+ * gc} to compare allocation as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+
+  // the default secret of auth and the gateway: 48 bytes, so HS384
+  private static final byte[] SECRET =
+      "hvitops-secret-key-for-jwt-token-validation-2024".getBytes(StandardCharsets.UTF_8);
+
+  private String token;
+  private HmacJwtVerifier verifier;
+  private JwtParser parser;
+
+  @Setup
+  public void setUp() {
+    SecretKey key = Keys.hmacShaKeyFor(SECRET);
+    Instant now = Instant.now();
+    token =
+        Jwts.builder()
+            .claim("role", "PATIENT")
+            .claim("email", "patient@hvitops.com")
+            .claim("name", "Test Patient")
+            .id(UUID.randomUUID().toString())
+            .subject("42")
+            .issuedAt(Date.from(now))
+            .expiration(Date.from(now.plus(Duration.ofDays(1))))
+            .signWith(key)
+            .compact();
+    verifier = new HmacJwtVerifier(SECRET);
+    parser = Jwts.parser().verifyWith(key).build();
+  }
+
+  @Benchmark
+  public VerifiedJwt hmacJwtVerifier() {
+    return verifier.verify(token);
+  }
+
+  @Benchmark
+  public String jjwt() {
+    Claims claims = parser.parseSignedClaims(token).getPayload();
+    return claims.getSubject() + claims.get("role", String.class);
+  }
+}
@@ -0,0 +1,229 @@
+package com.hvitops.jwt;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Forward-only reader over the top-level members of a JSON object. Values the caller is not
+ * interested in are skipped without being materialized.
+ */
+final class FlatJsonReader {
+
+  private final byte[] json;
+  private int pos;
+  private int keyStart;
+  private int keyEnd;
+  private boolean first = true;
+
+  FlatJsonReader(byte[] json) {
+    this.json = json;
+    skipWhitespace();
+    expect('{');
+  }
+
+  /** Advances to the next member and positions the reader on its value. */
+  boolean nextField() {
+    skipWhitespace();
+    if (peek() == '}') {
+      pos++;
+      return false;
+    }
+    if (!first) {
+      expect(',');
+      skipWhitespace();
+    }
+    first = false;
+    expect('"');
+    keyStart = pos;
+    while (peek() != '"') {
+      if (json[pos] == '\\') {
+        pos++;
+      }
+      pos++;
+    }
+    keyEnd = pos++;
+    skipWhitespace();
+    expect(':');
+    skipWhitespace();
+    return true;
+  }
+
+  boolean fieldIs(String name) {
+    if (keyEnd - keyStart != name.length()) {
+      return false;
+    }
+    for (int i = 0; i < name.length(); i++) {
+      if (json[keyStart + i] != name.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  String readString() {
+    if (peek() == 'n') {
+      skipValue();
+      return null;
+    }
+    expect('"');
+    int start = pos;
+    while (peek() != '"') {
+      if (json[pos] == '\\') {
+        return readEscapedString(start);
+      }
+      pos++;
+    }
+    return new String(json, start, pos++ - start, StandardCharsets.UTF_8);
+  }
+
+  /** Reads a NumericDate; any fractional part is truncated. */
+  Long readLong() {
+    if (peek() == 'n') {
+      skipValue();
+      return null;
+    }
+    boolean negative = json[pos] == '-';
+    if (negative) {
+      pos++;
+    }
+    if (!isDigit(peek())) {
+      throw malformed();
+    }
+    long value = 0;
+    try {
+      while (pos < json.length && isDigit(json[pos])) {
+        value = Math.addExact(Math.multiplyExact(value, 10), json[pos++] - '0');
+      }
+    } catch (ArithmeticException e) {
+      // no NumericDate needs more than a long
+      throw malformed();
+    }
+    if (pos < json.length && json[pos] == '.') {
+      pos++;
+      while (pos < json.length && isDigit(json[pos])) {
+        pos++;
+      }
+    }
+    if (pos < json.length && (json[pos] == 'e' || json[pos] == 'E')) {
+      throw malformed();
+    }
+    return negative ? -value : value;
+  }
+
+  void skipValue() {
+    byte b = peek();
+    if (b == '"') {
+      skipString();
+    } else if (b == '{' || b == '[') {
+      int depth = 0;
+      do {
+        b = peek();
+        if (b == '"') {
+          skipString();
+          continue;
+        }
+        if (b == '{' || b == '[') {
+          depth++;
+        } else if (b == '}' || b == ']') {
+          depth--;
+        }
+        pos++;
+      } while (depth > 0);
+    } else {
+      while (pos < json.length) {
+        b = json[pos];
+        if (b == ',' || b == '}' || b == ']' || isWhitespace(b)) {
+          break;
+        }
+        pos++;
+      }
+    }
+  }
+
+  private String readEscapedString(int start) {
+    StringBuilder sb = new StringBuilder(new String(json, start, pos - start, StandardCharsets.UTF_8));
+    while (true) {
+      byte b = peek();
+      if (b == '"') {
+        pos++;
+        return sb.toString();
+      }
+      if (b == '\\') {
+        pos++;
+        byte escaped = peek();
+        pos++;
+        switch (escaped) {
+          case '"', '\\', '/' -> sb.append((char) escaped);
+          case 'b' -> sb.append('\b');
+          case 'f' -> sb.append('\f');
+          case 'n' -> sb.append('\n');
+          case 'r' -> sb.append('\r');
+          case 't' -> sb.append('\t');
+          case 'u' -> {
+            if (pos + 4 > json.length) {
+              throw malformed();
+            }
+            int code = 0;
+            for (int i = 0; i < 4; i++) {
+              int digit = Character.digit(json[pos++], 16);
+              if (digit < 0) {
+                throw malformed();
+              }
+              code = (code << 4) | digit;
+            }
+            sb.append((char) code);
+          }
+          default -> throw malformed();
+        }
+      } else {
+        int runStart = pos;
+        while (peek() != '"' && json[pos] != '\\') {
+          pos++;
+        }
+        sb.append(new String(json, runStart, pos - runStart, StandardCharsets.UTF_8));
+      }
+    }
+  }
+
+  private void skipString() {
+    expect('"');
+    while (peek() != '"') {
+      if (json[pos] == '\\') {
+        pos++;
+      }
+      pos++;
+    }
+    pos++;
+  }
+
+  private void skipWhitespace() {
+    while (pos < json.length && isWhitespace(json[pos])) {
+      pos++;
+    }
+  }
+
+  private void expect(char c) {
+    if (peek() != c) {
+      throw malformed();
+    }
+    pos++;
+  }
+
+  private byte peek() {
+    if (pos >= json.length) {
+      throw malformed();
+    }
+    return json[pos];
+  }
+
+  private static boolean isDigit(byte b) {
+    return b >= '0' && b <= '9';
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+  }
+
+  private static JwtVerificationException malformed() {
+    return new JwtVerificationException("Malformed JWT JSON");
+  }
+}
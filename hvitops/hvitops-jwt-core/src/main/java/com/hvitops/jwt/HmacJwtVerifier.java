@@ -0,0 +1,155 @@
+package com.hvitops.jwt;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Verifies compact JWS tokens signed with HMAC-SHA, as issued by {@code hvitops-auth}.
+ *
+ * <p>The algorithm follows the key length the same way jjwt's {@code Keys.hmacShaKeyFor} does
+ * (HS256 from 32 bytes, HS384 from 48, HS512 from 64). The signature is checked over the raw
+ * token bytes before anything is decoded, and only the {@code jti}, {@code sub}, {@code role},
+ * {@code exp} and {@code nbf} claims are read from the payload; a token that repeats one of them,
+ * or the {@code alg} header, is rejected. Instances are thread-safe; each thread keeps its own
+ * initialized {@link Mac}.
+ */
+public final class HmacJwtVerifier {
+
+  private static final Base64.Decoder BASE64URL = Base64.getUrlDecoder();
+
+  private final String algorithm;
+  private final ThreadLocal<Mac> macs;
+  private final Clock clock;
+
+  public HmacJwtVerifier(byte[] secret) {
+    this(secret, Clock.systemUTC());
+  }
+
+  public HmacJwtVerifier(byte[] secret, Clock clock) {
+    if (secret.length < 32) {
+      throw new IllegalArgumentException("HMAC-SHA keys must be at least 256 bits");
+    }
+    this.algorithm = secret.length >= 64 ? "HS512" : secret.length >= 48 ? "HS384" : "HS256";
+    SecretKeySpec key = new SecretKeySpec(secret.clone(), "HmacSHA" + algorithm.substring(2));
+    newMac(key);
+    this.macs = ThreadLocal.withInitial(() -> newMac(key));
+    this.clock = clock;
+  }
+
+  public String getAlgorithm() {
+    return algorithm;
+  }
+
+  public VerifiedJwt verify(String token) {
+    int firstDot = token.indexOf('.');
+    int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+    if (firstDot <= 0
+        || secondDot <= firstDot + 1
+        || secondDot == token.length() - 1
+        || token.indexOf('.', secondDot + 1) >= 0) {
+      throw new JwtVerificationException("Malformed compact JWS");
+    }
+
+    byte[] ascii = token.getBytes(StandardCharsets.US_ASCII);
+    Mac mac = macs.get();
+    mac.update(ascii, 0, secondDot);
+    byte[] expected = mac.doFinal();
+    byte[] signature = decode(ascii, secondDot + 1, ascii.length - secondDot - 1);
+    if (!MessageDigest.isEqual(expected, signature)) {
+      throw new JwtVerificationException("Invalid signature");
+    }
+
+    FlatJsonReader header = new FlatJsonReader(decode(ascii, 0, firstDot));
+    String alg = null;
+    int seen = 0;
+    while (header.nextField()) {
+      if (header.fieldIs("alg")) {
+        seen = once(seen, 1);
+        alg = header.readString();
+      } else {
+        header.skipValue();
+      }
+    }
+    if (!algorithm.equals(alg)) {
+      throw new JwtVerificationException("Unexpected algorithm " + alg);
+    }
+
+    FlatJsonReader payload =
+        new FlatJsonReader(decode(ascii, firstDot + 1, secondDot - firstDot - 1));
+    String tokenId = null;
+    String subject = null;
+    String role = null;
+    Long exp = null;
+    Long nbf = null;
+    seen = 0;
+    while (payload.nextField()) {
+      if (payload.fieldIs("jti")) {
+        seen = once(seen, 1);
+        tokenId = payload.readString();
+      } else if (payload.fieldIs("sub")) {
+        seen = once(seen, 1 << 1);
+        subject = payload.readString();
+      } else if (payload.fieldIs("role")) {
+        seen = once(seen, 1 << 2);
+        role = payload.readString();
+      } else if (payload.fieldIs("exp")) {
+        seen = once(seen, 1 << 3);
+        exp = payload.readLong();
+      } else if (payload.fieldIs("nbf")) {
+        seen = once(seen, 1 << 4);
+        nbf = payload.readLong();
+      } else {
+        payload.skipValue();
+      }
+    }
+
+    long now = clock.instant().getEpochSecond();
+    if (exp != null && now >= exp) {
+      throw new JwtVerificationException("Token expired");
+    }
+    if (nbf != null && now < nbf) {
+      throw new JwtVerificationException("Token not yet valid");
+    }
+    if (exp != null && exp > Instant.MAX.getEpochSecond()) {
+      throw new JwtVerificationException("Token expiry out of range");
+    }
+    return new VerifiedJwt(
+        tokenId, subject, role, exp != null ? Instant.ofEpochSecond(exp) : null);
+  }
+
+  /** Marks a member as read; another parser could pick either copy of a repeated one. */
+  private static int once(int seen, int member) {
+    if ((seen & member) != 0) {
+      throw new JwtVerificationException("Duplicate JSON member");
+    }
+    return seen | member;
+  }
+
+  private static byte[] decode(byte[] ascii, int offset, int length) {
+    try {
+      ByteBuffer decoded = BASE64URL.decode(ByteBuffer.wrap(ascii, offset, length));
+      byte[] bytes = new byte[decoded.remaining()];
+      decoded.get(bytes);
+      return bytes;
+    } catch (IllegalArgumentException e) {
+      throw new JwtVerificationException("Invalid Base64URL segment");
+    }
+  }
+
+  private static Mac newMac(SecretKeySpec key) {
+    try {
+      Mac mac = Mac.getInstance(key.getAlgorithm());
+      mac.init(key);
+      return mac;
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Cannot initialize " + key.getAlgorithm(), e);
+    }
+  }
+}
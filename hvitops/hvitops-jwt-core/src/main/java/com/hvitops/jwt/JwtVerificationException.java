@@ -0,0 +1,10 @@
+package com.hvitops.jwt;
+
+public class JwtVerificationException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  public JwtVerificationException(String message) {
+    super(message);
+  }
+}
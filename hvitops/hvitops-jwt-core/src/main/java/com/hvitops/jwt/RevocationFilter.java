@@ -0,0 +1,106 @@
+package com.hvitops.jwt;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+
+/**
+ * Immutable Bloom filter over revoked token ids ({@code jti}). {@link #mightContain} never gives a
+ * false negative; a positive answer has to be confirmed against the exact list kept by {@code
+ * hvitops-auth}. Both sides must use this class so the bit positions agree.
+ */
+public final class RevocationFilter {
+
+  private static final double LN2 = Math.log(2);
+
+  private final long[] bits;
+  private final int numBits;
+  private final int numHashes;
+
+  private RevocationFilter(long[] bits, int numBits, int numHashes) {
+    this.bits = bits;
+    this.numBits = numBits;
+    this.numHashes = numHashes;
+  }
+
+  /** Sizes the filter for the given ids and target false-positive probability. */
+  public static RevocationFilter of(Collection<String> tokenIds, double falsePositiveRate) {
+    int n = Math.max(1, tokenIds.size());
+    long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (LN2 * LN2));
+    int numBits = (int) Math.max(64, Math.min(Integer.MAX_VALUE - 63, m));
+    // optimal k depends only on the target rate: -log2(p)
+    int numHashes = Math.max(1, (int) Math.round(-Math.log(falsePositiveRate) / LN2));
+    RevocationFilter filter =
+        new RevocationFilter(new long[(numBits + 63) / 64], numBits, numHashes);
+    for (String tokenId : tokenIds) {
+      filter.add(tokenId);
+    }
+    return filter;
+  }
+
+  /** Rebuilds a filter published with {@link #encodedBits()}. */
+  public static RevocationFilter decode(String encodedBits, int numBits, int numHashes) {
+    ByteBuffer bytes = ByteBuffer.wrap(Base64.getDecoder().decode(encodedBits));
+    if (numBits < 1 || numHashes < 1 || bytes.remaining() != (numBits + 63L) / 64 * 8) {
+      throw new IllegalArgumentException("Revocation filter does not match its declared size");
+    }
+    long[] bits = new long[bytes.remaining() / 8];
+    bytes.asLongBuffer().get(bits);
+    return new RevocationFilter(bits, numBits, numHashes);
+  }
+
+  public boolean mightContain(String tokenId) {
+    long h1 = hash(tokenId);
+    long h2 = fmix64(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+    for (int i = 0; i < numHashes; i++) {
+      int index = (int) Long.remainderUnsigned(h1 + i * h2, numBits);
+      if ((bits[index >>> 6] & (1L << index)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public String encodedBits() {
+    ByteBuffer bytes = ByteBuffer.allocate(bits.length * 8);
+    bytes.asLongBuffer().put(bits);
+    return Base64.getEncoder().encodeToString(bytes.array());
+  }
+
+  public int getNumBits() {
+    return numBits;
+  }
+
+  public int getNumHashes() {
+    return numHashes;
+  }
+
+  private void add(String tokenId) {
+    long h1 = hash(tokenId);
+    long h2 = fmix64(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+    for (int i = 0; i < numHashes; i++) {
+      int index = (int) Long.remainderUnsigned(h1 + i * h2, numBits);
+      bits[index >>> 6] |= 1L << index;
+    }
+  }
+
+  /** FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer. */
+  private static long hash(String tokenId) {
+    long h = 0xcbf29ce484222325L;
+    for (byte b : tokenId.getBytes(StandardCharsets.UTF_8)) {
+      h ^= b & 0xff;
+      h *= 0x100000001b3L;
+    }
+    return fmix64(h);
+  }
+
+  private static long fmix64(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb93e53e63b53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -0,0 +1,21 @@
+package com.hvitops.jwt;
+
+import java.util.Set;
+
+/**
+ * Wire format of the revocation list published by {@code hvitops-auth}: a {@link
+ * RevocationFilter} built at the last rebuild plus the exact ids revoked since then. {@code
+ * version} changes with every revocation.
+ */
+public record RevocationSnapshot(
+    long version, int numBits, int numHashes, String bits, Set<String> overflow) {
+
+  public static RevocationSnapshot of(long version, RevocationFilter filter, Set<String> overflow) {
+    return new RevocationSnapshot(
+        version, filter.getNumBits(), filter.getNumHashes(), filter.encodedBits(), overflow);
+  }
+
+  public RevocationFilter filter() {
+    return RevocationFilter.decode(bits, numBits, numHashes);
+  }
+}
@@ -0,0 +1,6 @@
+package com.hvitops.jwt;
+
+import java.time.Instant;
+
+/** Claims of a verified token; {@code tokenId} is the {@code jti} claim and may be null. */
+public record VerifiedJwt(String tokenId, String subject, String role, Instant expiresAt) {}
@@ -0,0 +1,266 @@
+package com.hvitops.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Date;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Checks {@link HmacJwtVerifier} against tokens issued with jjwt the way {@code hvitops-auth}
+ * does, and against hand-built tokens that jjwt would not produce.
+ */
+class HmacJwtVerifierTest {
+
+  // the default secret of auth and the gateway: 48 bytes, so HS384
+  private static final byte[] SECRET =
+      "hvitops-secret-key-for-jwt-token-validation-2024".getBytes(StandardCharsets.UTF_8);
+  private static final String HEADER = "{\"alg\":\"HS384\"}";
+  private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+
+  private final HmacJwtVerifier verifier =
+      new HmacJwtVerifier(SECRET, Clock.fixed(NOW, ZoneOffset.UTC));
+
+  @Test
+  void verifiesTokensIssuedByJjwt() {
+    String token =
+        Jwts.builder()
+            .claim("role", "PATIENT")
+            .claim("email", "patient@example.com")
+            .claim("name", "João Silva")
+            .id("0b9f6c1e-5d2a-4f57-9a43-1c8e7d2b6a90")
+            .subject("42")
+            .issuedAt(Date.from(NOW))
+            .expiration(Date.from(NOW.plus(Duration.ofDays(1))))
+            .signWith(Keys.hmacShaKeyFor(SECRET))
+            .compact();
+
+    VerifiedJwt jwt = verifier.verify(token);
+
+    assertThat(verifier.getAlgorithm()).isEqualTo("HS384");
+    assertThat(jwt.tokenId()).isEqualTo("0b9f6c1e-5d2a-4f57-9a43-1c8e7d2b6a90");
+    assertThat(jwt.subject()).isEqualTo("42");
+    assertThat(jwt.role()).isEqualTo("PATIENT");
+    assertThat(jwt.expiresAt()).isEqualTo(NOW.plus(Duration.ofDays(1)));
+  }
+
+  @Test
+  void readsEscapedAndNonAsciiStringsLikeJjwtWritesThem() {
+    String subject = "\"quoted\" \\ / \n\t é ☃ 😀";
+    String token =
+        Jwts.builder()
+            .subject(subject)
+            .claim("role", "MÉDICO")
+            .signWith(Keys.hmacShaKeyFor(SECRET))
+            .compact();
+
+    VerifiedJwt jwt = verifier.verify(token);
+
+    assertThat(jwt.subject()).isEqualTo(subject);
+    assertThat(jwt.role()).isEqualTo("MÉDICO");
+  }
+
+  @Test
+  void readsUnicodeEscapes() {
+    String token =
+        sign(HEADER, "{\"sub\":\"Jo\\u00e3o \\ud83d\\ude00\",\"role\":\"\\u0041DMIN\\/x\"}");
+
+    VerifiedJwt jwt = verifier.verify(token);
+
+    assertThat(jwt.subject()).isEqualTo("João 😀");
+    assertThat(jwt.role()).isEqualTo("ADMIN/x");
+  }
+
+  @Test
+  void rejectsTamperedSignature() {
+    String token = sign(HEADER, "{\"sub\":\"42\"}");
+    int signatureStart = token.lastIndexOf('.') + 1;
+    char first = token.charAt(signatureStart);
+    String tampered =
+        token.substring(0, signatureStart)
+            + (first == 'A' ? 'B' : 'A')
+            + token.substring(signatureStart + 1);
+
+    assertThatThrownBy(() -> verifier.verify(tampered))
+        .isInstanceOf(JwtVerificationException.class)
+        .hasMessage("Invalid signature");
+  }
+
+  @Test
+  void rejectsTamperedPayload() {
+    String token = sign(HEADER, "{\"sub\":\"42\",\"role\":\"PATIENT\"}");
+    String[] parts = token.split("\\.");
+    String tampered =
+        parts[0] + "." + base64Url("{\"sub\":\"42\",\"role\":\"ADMIN\"}") + "." + parts[2];
+
+    assertThatThrownBy(() -> verifier.verify(tampered))
+        .isInstanceOf(JwtVerificationException.class)
+        .hasMessage("Invalid signature");
+  }
+
+  @Test
+  void rejectsAlgorithmOtherThanTheKeys() {
+    String token = sign("{\"alg\":\"HS256\"}", "{\"sub\":\"42\"}");
+
+    assertThatThrownBy(() -> verifier.verify(token))
+        .isInstanceOf(JwtVerificationException.class)
+        .hasMessage("Unexpected algorithm HS256");
+  }
+
+  @Test
+  void rejectsAlgNone() {
+    String unsigned = base64Url("{\"alg\":\"none\"}") + "." + base64Url("{\"sub\":\"42\"}") + ".";
+    String signed = sign("{\"alg\":\"none\"}", "{\"sub\":\"42\"}");
+
+    assertThatThrownBy(() -> verifier.verify(unsigned))
+        .isInstanceOf(JwtVerificationException.class)
+        .hasMessage("Malformed compact JWS");
+    assertThatThrownBy(() -> verifier.verify(signed))
+        .isInstanceOf(JwtVerificationException.class)
+        .hasMessage("Unexpected algorithm none");
+  }
+
+  @Test
+  void rejectsMissingAlgorithm() {
+    String token = sign("{\"typ\":\"JWT\"}", "{\"sub\":\"42\"}");
+
+    assertThatThrownBy(() -> verifier.verify(token))
+        .isInstanceOf(JwtVerificationException.class)
+        .hasMessage("Unexpected algorithm null");
+  }
+
+  @Test
+  void rejectsExpiredToken() {
+    long now = NOW.getEpochSecond();
+
+    assertThatThrownBy(() -> verifier.verify(sign(HEADER, "{\"exp\":" + (now - 1) + "}")))
+        .isInstanceOf(JwtVerificationException.class)
+        .hasMessage("Token expired");
+    // exp is the first second the token is no longer valid
+    assertThatThrownBy(() -> verifier.verify(sign(HEADER, "{\"exp\":" + now + "}")))
+        .isInstanceOf(JwtVerificationException.class)
+        .hasMessage("Token expired");
+    assertThat(verifier.verify(sign(HEADER, "{\"exp\":" + (now + 1) + "}")).expiresAt())
+        .isEqualTo(NOW.plusSeconds(1));
+  }
+
+  @Test
+  void rejectsTokenNotYetValid() {
+    long now = NOW.getEpochSecond();
+
+    assertThatThrownBy(() -> verifier.verify(sign(HEADER, "{\"nbf\":" + (now + 1) + "}")))
+        .isInstanceOf(JwtVerificationException.class)
+        .hasMessage("Token not yet valid");
+    assertThat(verifier.verify(sign(HEADER, "{\"sub\":\"42\",\"nbf\":" + now + "}")).subject())
+        .isEqualTo("42");
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"", "abc", "a.b", "a.b.c.d", ".b.c", "a..c", "a.b.", "..."})
+  void rejectsWrongSegmentCount(String token) {
+    assertThatThrownBy(() -> verifier.verify(token))
+        .isInstanceOf(JwtVerificationException.class)
+        .hasMessage("Malformed compact JWS");
+  }
+
+  @Test
+  void rejectsBadBase64Url() {
+    String token = sign(HEADER, "{\"sub\":\"42\"}");
+    int signatureStart = token.lastIndexOf('.') + 1;
+    // '+' and '/' belong to the standard alphabet, not to Base64URL
+    String badSignature =
+        token.substring(0, signatureStart) + "+/" + token.substring(signatureStart + 2);
+    // signed as is, so decoding is what fails
+    String badHeader = signRaw("eyJhbGciOiJIUzM4NCJ9*", base64Url("{\"sub\":\"42\"}"));
+
+    assertThatThrownBy(() -> verifier.verify(badSignature))
+        .isInstanceOf(JwtVerificationException.class)
+        .hasMessage("Invalid Base64URL segment");
+    assertThatThrownBy(() -> verifier.verify(badHeader))
+        .isInstanceOf(JwtVerificationException.class)
+        .hasMessage("Invalid Base64URL segment");
+  }
+
+  @Test
+  void rejectsDuplicateClaims() {
+    assertThatThrownBy(() -> verifier.verify(sign(HEADER, "{\"sub\":\"42\",\"sub\":\"1\"}")))
+        .isInstanceOf(JwtVerificationException.class)
+        .hasMessage("Duplicate JSON member");
+    assertThatThrownBy(() -> verifier.verify(sign(HEADER, "{\"exp\":null,\"exp\":1}")))
+        .isInstanceOf(JwtVerificationException.class)
+        .hasMessage("Duplicate JSON member");
+    assertThatThrownBy(
+            () -> verifier.verify(sign("{\"alg\":\"none\",\"alg\":\"HS384\"}", "{\"sub\":\"42\"}")))
+        .isInstanceOf(JwtVerificationException.class)
+        .hasMessage("Duplicate JSON member");
+  }
+
+  @Test
+  void ignoresDuplicatesOfClaimsItDoesNotRead() {
+    VerifiedJwt jwt =
+        verifier.verify(sign(HEADER, "{\"email\":\"a\",\"email\":\"b\",\"sub\":\"42\"}"));
+
+    assertThat(jwt.subject()).isEqualTo("42");
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"9223372036854775808", "99999999999999999999", "-9223372036854775809"})
+  void rejectsOverflowingNumericClaims(String value) {
+    assertThatThrownBy(() -> verifier.verify(sign(HEADER, "{\"exp\":" + value + "}")))
+        .isInstanceOf(JwtVerificationException.class)
+        .hasMessage("Malformed JWT JSON");
+    assertThatThrownBy(() -> verifier.verify(sign(HEADER, "{\"nbf\":" + value + "}")))
+        .isInstanceOf(JwtVerificationException.class)
+        .hasMessage("Malformed JWT JSON");
+  }
+
+  @Test
+  void readsLargestNumericClaims() {
+    long maxInstant = Instant.MAX.getEpochSecond();
+    String maxLong = String.valueOf(Long.MAX_VALUE);
+
+    assertThat(verifier.verify(sign(HEADER, "{\"exp\":" + maxInstant + "}")).expiresAt())
+        .isEqualTo(Instant.ofEpochSecond(maxInstant));
+    assertThatThrownBy(() -> verifier.verify(sign(HEADER, "{\"exp\":" + maxLong + "}")))
+        .isInstanceOf(JwtVerificationException.class)
+        .hasMessage("Token expiry out of range");
+    assertThatThrownBy(() -> verifier.verify(sign(HEADER, "{\"nbf\":" + maxLong + "}")))
+        .isInstanceOf(JwtVerificationException.class)
+        .hasMessage("Token not yet valid");
+  }
+
+  private static String sign(String header, String payload) {
+    return signRaw(base64Url(header), base64Url(payload));
+  }
+
+  private static String signRaw(String header, String payload) {
+    String signingInput = header + "." + payload;
+    try {
+      Mac mac = Mac.getInstance("HmacSHA384");
+      mac.init(new SecretKeySpec(SECRET, "HmacSHA384"));
+      byte[] signature = mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+      return signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String base64Url(String json) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(json.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,48 @@
+#!/bin/sh
+# Builds the laboratory tests service with the reactive API (default) and with the blocking one,
+# runs the same k6 load against each, and prints their latency percentiles and the highest thread
+# count of the JVM during the run. Needs the stack running: docker compose up -d
+#
+# Usage: ./compare.sh [rate per second] [duration]
+set -e
+
+cd "$(dirname "$0")/../.."
+RATE="${1:-400}"
+DURATION="${2:-60s}"
+CONTAINER=hvitops-laboratory-tests
+RESULTS="$(mktemp -d)"
+
+for PROFILE in prod blocking; do
+  docker compose build --build-arg BUILD_PROFILE="$PROFILE" laboratory-tests >/dev/null
+  docker compose up -d --no-deps laboratory-tests >/dev/null
+  until docker exec "$CONTAINER" wget -q -O /dev/null http://localhost:8082/laboratory-tests/types/list 2>/dev/null; do
+    sleep 1
+  done
+  NETWORK="$(docker inspect "$CONTAINER" -f '{{range $name, $_ := .NetworkSettings.Networks}}{{$name}}{{end}}')"
+
+  # the JVM's thread count, sampled every second while k6 runs
+  (
+    while true; do
+      docker exec "$CONTAINER" grep Threads /proc/1/status 2>/dev/null | awk '{print $2}'
+      sleep 1
+    done
+  ) > "$RESULTS/$PROFILE.threads" &
+  SAMPLER=$!
+
+  docker run --rm --network "$NETWORK" -v "$PWD/hvitops-laboratory-tests/load-test:/scripts" grafana/k6 run \
+    -e BASE_URL="http://$CONTAINER:8082" -e RATE="$RATE" -e DURATION="$DURATION" \
+    /scripts/lab-tests.js > "$RESULTS/$PROFILE.log"
+
+  kill "$SAMPLER"
+  grep -E 'http_req_duration|http_req_failed|dropped_iterations' "$RESULTS/$PROFILE.log" > "$RESULTS/$PROFILE.summary" || true
+done
+
+for PROFILE in prod blocking; do
+  if [ "$PROFILE" = prod ]; then NAME=reactive; else NAME=blocking; fi
+  echo "== $NAME: $RATE requests/s for $DURATION, peak threads $(sort -n "$RESULTS/$PROFILE.threads" | tail -1)"
+  cat "$RESULTS/$PROFILE.summary"
+done
+
+# leave the service as configured in docker-compose.yml
+docker compose build laboratory-tests >/dev/null
+docker compose up -d --no-deps laboratory-tests >/dev/null
@@ -0,0 +1,58 @@
+// Load profile for GET /laboratory-tests/patient/{id}, full listings and pages, at a fixed arrival
+// rate so that a slower implementation shows up as latency instead of as fewer requests.
+// Run through compare.sh, or: k6 run -e BASE_URL=http://localhost:8082 lab-tests.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8082';
+const RATE = parseInt(__ENV.RATE || '400');
+const DURATION = __ENV.DURATION || '60s';
+// patients far above the seed data, each with TESTS_PER_PATIENT tests
+const FIRST_PATIENT = 900000;
+const PATIENTS = 50;
+const TESTS_PER_PATIENT = 200;
+
+export const options = {
+  scenarios: {
+    listings: {
+      executor: 'constant-arrival-rate',
+      rate: RATE,
+      timeUnit: '1s',
+      duration: DURATION,
+      preAllocatedVUs: 200,
+      maxVUs: 2000,
+    },
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+  const probe = http.get(`${BASE_URL}/laboratory-tests/patient/${FIRST_PATIENT + PATIENTS - 1}?limit=1`);
+  if (probe.status === 200 && probe.json('items').length > 0) {
+    return;
+  }
+  const headers = { 'Content-Type': 'application/json' };
+  for (let patient = FIRST_PATIENT; patient < FIRST_PATIENT + PATIENTS; patient++) {
+    const requests = [];
+    for (let i = 0; i < TESTS_PER_PATIENT; i++) {
+      const date = new Date(Date.UTC(2025, 0, 1) + i * 86400000).toISOString().substring(0, 19);
+      requests.push(['POST', `${BASE_URL}/laboratory-tests`, JSON.stringify({
+        patientId: patient,
+        date: date,
+        items: [{ testType: 'Blood Glucose', result: '95', unit: 'mg/dL', referenceRange: '70-100' }],
+      }), { headers }]);
+    }
+    http.batch(requests);
+  }
+}
+
+export default function () {
+  const patient = FIRST_PATIENT + Math.floor(Math.random() * PATIENTS);
+  // one request in four reads a whole history, the others its first page
+  const url = Math.random() < 0.25
+    ? `${BASE_URL}/laboratory-tests/patient/${patient}`
+    : `${BASE_URL}/laboratory-tests/patient/${patient}?limit=20`;
+  check(http.get(url, { tags: { name: url.includes('limit') ? 'page' : 'listing' } }), {
+    'status is 200': (response) => response.status === 200,
+  });
+}
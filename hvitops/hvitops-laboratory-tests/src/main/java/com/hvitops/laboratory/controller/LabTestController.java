@@ -3,15 +3,23 @@ package com.hvitops.laboratory.controller;
 import com.hvitops.laboratory.entity.LabTest;
 import com.hvitops.laboratory.entity.LabTestType;
 import com.hvitops.laboratory.service.LabTestService;
+import io.quarkus.arc.profile.IfBuildProfile;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import java.util.List;
+import java.util.Map;
+import org.jboss.resteasy.reactive.server.ServerExceptionMapper;
 
+/**
+ * The blocking lab test API, run on worker threads. Only built with the {@code blocking} profile;
+ * {@link ReactiveLabTestController} serves the same API otherwise.
+ */
 @Path("/laboratory-tests")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
+@IfBuildProfile("blocking")
 public class LabTestController {
 
   @Inject LabTestService service;
@@ -33,12 +41,23 @@ public class LabTestController {
     return Response.ok(labTest).build();
   }
 
+  /** Lab tests newest first, optionally of one {@code status}. */
   @GET
-  public Response getAllLabTests() {
-    List<LabTest> tests = service.getAllLabTests();
+  public Response getAllLabTests(@QueryParam("status") String status) {
+    List<LabTest> tests = service.getAllLabTests(status);
     return Response.ok(tests).build();
   }
 
+  /** Reached as {@code GET /laboratory-tests?limit=...}; see {@link PageRouting}. */
+  @GET
+  @Path("/page")
+  public Response getLabTestPage(
+      @QueryParam("status") String status,
+      @QueryParam("limit") int limit,
+      @QueryParam("after") String after) {
+    return Response.ok(service.getLabTestPage(status, after, limit)).build();
+  }
+
   @GET
   @Path("/patient/{patientId}")
   public Response getLabTestsByPatient(@PathParam("patientId") Long patientId) {
@@ -46,6 +65,15 @@ public class LabTestController {
     return Response.ok(tests).build();
   }
 
+  @GET
+  @Path("/patient/{patientId}/page")
+  public Response getLabTestPageByPatient(
+      @PathParam("patientId") Long patientId,
+      @QueryParam("limit") int limit,
+      @QueryParam("after") String after) {
+    return Response.ok(service.getLabTestPageByPatientId(patientId, after, limit)).build();
+  }
+
   @PUT
   @Path("/{id}")
   public Response updateLabTest(@PathParam("id") String id, LabTest labTest) {
@@ -72,4 +100,9 @@ public class LabTestController {
     List<LabTestType> types = service.getTestTypes();
     return Response.ok(types).build();
   }
+
+  @ServerExceptionMapper
+  public Response handleBadRequest(IllegalArgumentException e) {
+    return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", e.getMessage())).build();
+  }
 }
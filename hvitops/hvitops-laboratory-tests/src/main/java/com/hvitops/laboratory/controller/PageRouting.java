@@ -0,0 +1,29 @@
+package com.hvitops.laboratory.controller;
+
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.core.UriInfo;
+import java.util.regex.Pattern;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+
+/**
+ * Sends {@code GET /laboratory-tests?limit=...} and {@code /laboratory-tests/patient/{id}?limit=...}
+ * to their {@code /page} methods. A listing answers an array and a page an object with its next
+ * cursor; JAX-RS matches methods by path only, so pages are routed before matching to keep the
+ * {@code limit} parameter on the listing URLs.
+ */
+public class PageRouting {
+
+  private static final Pattern LISTING = Pattern.compile("/laboratory-tests(/patient/[^/]+)?/?");
+
+  @ServerRequestFilter(preMatching = true)
+  public void routePages(ContainerRequestContext context) {
+    UriInfo uri = context.getUriInfo();
+    if (HttpMethod.GET.equals(context.getMethod())
+        && uri.getQueryParameters().containsKey("limit")
+        && LISTING.matcher(uri.getPath()).matches()) {
+      String path = uri.getPath().endsWith("/") ? uri.getPath() : uri.getPath() + "/";
+      context.setRequestUri(uri.getRequestUriBuilder().replacePath(path + "page").build());
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package com.hvitops.laboratory.controller;
+
+import com.hvitops.laboratory.dto.LabTestPage;
+import com.hvitops.laboratory.entity.LabTest;
+import com.hvitops.laboratory.entity.LabTestType;
+import com.hvitops.laboratory.service.ReactiveLabTestService;
+import io.quarkus.arc.profile.UnlessBuildProfile;
+import io.smallrye.common.annotation.NonBlocking;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.util.List;
+import java.util.Map;
+import org.jboss.resteasy.reactive.server.ServerExceptionMapper;
+
+/**
+ * The lab test API on the event loop, end to end: no request holds a thread while MongoDB works.
+ * Build with the {@code blocking} profile to get {@link LabTestController} instead.
+ */
+@Path("/laboratory-tests")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@UnlessBuildProfile("blocking")
+public class ReactiveLabTestController {
+
+  @Inject ReactiveLabTestService service;
+
+  @POST
+  public Uni<Response> createLabTest(LabTest labTest) {
+    labTest.setStatus("scheduled");
+    return service.createLabTest(labTest)
+        .map(created -> Response.status(Response.Status.CREATED).entity(created).build());
+  }
+
+  @GET
+  @Path("/{id}")
+  public Uni<Response> getLabTest(@PathParam("id") String id) {
+    return service.getLabTestById(id).map(ReactiveLabTestController::okOrNotFound);
+  }
+
+  /** Streamed as it is read, at the pace the client consumes it. */
+  @GET
+  public Multi<LabTest> getAllLabTests(@QueryParam("status") String status) {
+    return service.streamAllLabTests(status);
+  }
+
+  /** Reached as {@code GET /laboratory-tests?limit=...}; see {@link PageRouting}. */
+  @GET
+  @Path("/page")
+  public Uni<LabTestPage> getLabTestPage(
+      @QueryParam("status") String status,
+      @QueryParam("limit") int limit,
+      @QueryParam("after") String after) {
+    return service.getLabTestPage(status, after, limit);
+  }
+
+  @GET
+  @Path("/patient/{patientId}")
+  public Multi<LabTest> getLabTestsByPatient(@PathParam("patientId") Long patientId) {
+    return service.streamLabTestsByPatientId(patientId);
+  }
+
+  @GET
+  @Path("/patient/{patientId}/page")
+  public Uni<LabTestPage> getLabTestPageByPatient(
+      @PathParam("patientId") Long patientId,
+      @QueryParam("limit") int limit,
+      @QueryParam("after") String after) {
+    return service.getLabTestPageByPatientId(patientId, after, limit);
+  }
+
+  @PUT
+  @Path("/{id}")
+  public Uni<Response> updateLabTest(@PathParam("id") String id, LabTest labTest) {
+    if (labTest.getPerformedAt() != null) {
+      labTest.setStatus("pending_results");
+    }
+    return service.updateLabTest(id, labTest).map(ReactiveLabTestController::okOrNotFound);
+  }
+
+  @DELETE
+  @Path("/{id}")
+  public Uni<Response> deleteLabTest(@PathParam("id") String id) {
+    return service.deleteLabTest(id).replaceWith(Response.noContent().build());
+  }
+
+  @GET
+  @Path("/types/list")
+  @NonBlocking
+  public List<LabTestType> getTestTypes() {
+    return service.getTestTypes();
+  }
+
+  @ServerExceptionMapper
+  public Response handleBadRequest(IllegalArgumentException e) {
+    return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", e.getMessage())).build();
+  }
+
+  private static Response okOrNotFound(LabTest labTest) {
+    return labTest != null
+        ? Response.ok(labTest).build()
+        : Response.status(Response.Status.NOT_FOUND).build();
+  }
+}
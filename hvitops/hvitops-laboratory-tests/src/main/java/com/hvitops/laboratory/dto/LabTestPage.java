@@ -0,0 +1,16 @@
+package com.hvitops.laboratory.dto;
+
+import com.hvitops.laboratory.entity.LabTest;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LabTestPage {
+  private List<LabTest> items;
+  /** Pass as {@code after} to get the next page; null on the last page. */
+  private String nextCursor;
+}
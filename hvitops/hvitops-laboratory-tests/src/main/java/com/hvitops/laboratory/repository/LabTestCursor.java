@@ -0,0 +1,30 @@
+package com.hvitops.laboratory.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import org.bson.types.ObjectId;
+
+/**
+ * Position in a lab test listing: the {@code (date, id)} of the last test returned, handed to
+ * clients as an opaque string. The date is null for a test without one; those come last.
+ */
+public record LabTestCursor(LocalDateTime date, ObjectId id) {
+
+    public String encode() {
+        String raw = (date != null ? date.toString() : "") + "," + id.toHexString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static LabTestCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int comma = raw.indexOf(',');
+            String date = raw.substring(0, comma);
+            return new LabTestCursor(date.isEmpty() ? null : LocalDateTime.parse(date), new ObjectId(raw.substring(comma + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.hvitops.laboratory.repository;
+
+import com.hvitops.laboratory.entity.LabTest;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.bson.Document;
+
+import java.util.List;
+
+/**
+ * Creates the indexes behind {@link LabTestQueries} at startup; creating an index that
+ * already exists does nothing. Each index ends with {@code _id}, the tie-breaker of the newest-first
+ * order, so that sorted pages are read straight from the index.
+ */
+@ApplicationScoped
+public class LabTestIndexes {
+
+    static final List<IndexModel> INDEXES = List.of(
+            new IndexModel(new Document("patientId", 1).append("date", -1).append("_id", -1),
+                    new IndexOptions().name("patientId_date")),
+            // read backwards for newest first within a status
+            new IndexModel(new Document("status", 1).append("date", 1).append("_id", 1),
+                    new IndexOptions().name("status_date")),
+            new IndexModel(new Document("date", -1).append("_id", -1),
+                    new IndexOptions().name("date")));
+
+    @Inject LabTestRepository repository;
+
+    void onStart(@Observes StartupEvent event) {
+        MongoCollection<LabTest> collection = repository.mongoCollection();
+        collection.createIndexes(INDEXES);
+        Log.infof("Lab test indexes ready on %s", collection.getNamespace());
+    }
+}
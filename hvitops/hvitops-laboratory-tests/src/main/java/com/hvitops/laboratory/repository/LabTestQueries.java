@@ -0,0 +1,44 @@
+package com.hvitops.laboratory.repository;
+
+import org.bson.Document;
+
+import java.util.List;
+
+/**
+ * The lab test query shapes, shared by {@link LabTestRepository} and {@link ReactiveLabTestRepository}
+ * and served by the indexes of {@link LabTestIndexes}. Tests are listed newest first: by
+ * {@code date} descending, then {@code _id} descending so that tests of the same date keep a stable
+ * order across pages.
+ */
+final class LabTestQueries {
+    
+    static final Document NEWEST_FIRST = new Document("date", -1).append("_id", -1);
+    
+    private LabTestQueries() {
+    }
+    
+    static Document patientFilter(Long patientId, LabTestCursor after) {
+        return after(new Document("patientId", patientId), after);
+    }
+    
+    static Document listFilter(String status, LabTestCursor after) {
+        return after(status != null ? new Document("status", status) : new Document(), after);
+    }
+    
+    /**
+     * Narrows {@code filter} to the tests after {@code cursor} in {@link #NEWEST_FIRST} order. Tests
+     * without a date sort after all the others.
+     */
+    private static Document after(Document filter, LabTestCursor cursor) {
+        if (cursor == null) {
+            return filter;
+        }
+        if (cursor.date() == null) {
+            return filter.append("date", null).append("_id", new Document("$lt", cursor.id()));
+        }
+        return filter.append("$or", List.of(
+                new Document("date", new Document("$lt", cursor.date())),
+                new Document("date", cursor.date()).append("_id", new Document("$lt", cursor.id())),
+                new Document("date", null)));
+    }
+}
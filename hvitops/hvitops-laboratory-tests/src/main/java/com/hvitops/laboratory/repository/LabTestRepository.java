@@ -6,11 +6,26 @@ import jakarta.enterprise.context.ApplicationScoped;
 
 import java.util.List;
 
+/** Lab tests, newest first; see {@link LabTestQueries}. */
 @ApplicationScoped
 public class LabTestRepository implements PanacheMongoRepository<LabTest> {
     
     public List<LabTest> findByPatientId(Long patientId) {
-        return list("patientId", patientId);
+        return find(LabTestQueries.patientFilter(patientId, null), LabTestQueries.NEWEST_FIRST).list();
+    }
+    
+    /** Up to {@code size} tests of a patient following {@code after}, or from the newest when null. */
+    public List<LabTest> findPageByPatientId(Long patientId, LabTestCursor after, int size) {
+        return find(LabTestQueries.patientFilter(patientId, after), LabTestQueries.NEWEST_FIRST).page(0, size).list();
+    }
+    
+    /** All tests, or those with {@code status} when not null. */
+    public List<LabTest> listNewestFirst(String status) {
+        return find(LabTestQueries.listFilter(status, null), LabTestQueries.NEWEST_FIRST).list();
+    }
+    
+    public List<LabTest> findPage(String status, LabTestCursor after, int size) {
+        return find(LabTestQueries.listFilter(status, after), LabTestQueries.NEWEST_FIRST).page(0, size).list();
     }
     
     public LabTest findByIdAndPatientId(String id, Long patientId) {
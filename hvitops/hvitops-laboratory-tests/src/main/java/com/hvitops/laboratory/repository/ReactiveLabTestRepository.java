@@ -0,0 +1,36 @@
+package com.hvitops.laboratory.repository;
+
+import com.hvitops.laboratory.entity.LabTest;
+import io.quarkus.mongodb.panache.reactive.ReactivePanacheMongoRepository;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.List;
+
+/**
+ * The non-blocking counterpart of {@link LabTestRepository}, on the reactive streams driver. The
+ * streams read the cursor in batches as subscribers request tests, so a slow client holds back the
+ * query instead of buffering its results.
+ */
+@ApplicationScoped
+public class ReactiveLabTestRepository implements ReactivePanacheMongoRepository<LabTest> {
+    
+    public Multi<LabTest> streamByPatientId(Long patientId) {
+        return find(LabTestQueries.patientFilter(patientId, null), LabTestQueries.NEWEST_FIRST).stream();
+    }
+    
+    /** Up to {@code size} tests of a patient following {@code after}, or from the newest when null. */
+    public Uni<List<LabTest>> findPageByPatientId(Long patientId, LabTestCursor after, int size) {
+        return find(LabTestQueries.patientFilter(patientId, after), LabTestQueries.NEWEST_FIRST).page(0, size).list();
+    }
+    
+    /** All tests, or those with {@code status} when not null. */
+    public Multi<LabTest> streamNewestFirst(String status) {
+        return find(LabTestQueries.listFilter(status, null), LabTestQueries.NEWEST_FIRST).stream();
+    }
+    
+    public Uni<List<LabTest>> findPage(String status, LabTestCursor after, int size) {
+        return find(LabTestQueries.listFilter(status, after), LabTestQueries.NEWEST_FIRST).page(0, size).list();
+    }
+}
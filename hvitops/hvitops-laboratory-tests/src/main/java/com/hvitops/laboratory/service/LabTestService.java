@@ -1,7 +1,9 @@
 package com.hvitops.laboratory.service;
 
+import com.hvitops.laboratory.dto.LabTestPage;
 import com.hvitops.laboratory.entity.LabTest;
 import com.hvitops.laboratory.entity.LabTestType;
+import com.hvitops.laboratory.repository.LabTestCursor;
 import com.hvitops.laboratory.repository.LabTestRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -12,6 +14,8 @@ import org.bson.types.ObjectId;
 @ApplicationScoped
 public class LabTestService {
 
+  static final int MAX_PAGE_SIZE = 500;
+
   @Inject LabTestRepository repository;
 
   public LabTest createLabTest(LabTest labTest) {
@@ -28,34 +32,76 @@ public class LabTestService {
     return repository.findByPatientId(patientId);
   }
 
+  /**
+   * One page of a patient's lab tests, newest first, starting after {@code after}, a cursor from a
+   * previous page.
+   */
+  public LabTestPage getLabTestPageByPatientId(Long patientId, String after, int limit) {
+    int pageSize = pageSize(limit);
+    return page(repository.findPageByPatientId(patientId, cursor(after), pageSize + 1), pageSize);
+  }
+
   public LabTest updateLabTest(String id, LabTest labTest) {
     ObjectId objectId = new ObjectId(id);
     LabTest existing = repository.findById(objectId);
 
     if (existing != null) {
-      existing.setDate(labTest.getDate());
-      existing.setStatus(labTest.getStatus());
-      if (labTest.getItems() != null && !labTest.getItems().isEmpty()) {
-        existing.setItems(labTest.getItems());
-      }
-      if (labTest.getPatientId() != null) {
-        existing.setPatientId(labTest.getPatientId());
-      }
+      applyChanges(existing, labTest);
       existing.update();
     }
     return existing;
   }
 
+  static void applyChanges(LabTest existing, LabTest labTest) {
+    existing.setDate(labTest.getDate());
+    existing.setStatus(labTest.getStatus());
+    if (labTest.getItems() != null && !labTest.getItems().isEmpty()) {
+      existing.setItems(labTest.getItems());
+    }
+    if (labTest.getPatientId() != null) {
+      existing.setPatientId(labTest.getPatientId());
+    }
+  }
+
   public void deleteLabTest(String id) {
     ObjectId objectId = new ObjectId(id);
     repository.deleteById(objectId);
   }
 
-  public List<LabTest> getAllLabTests() {
-    return repository.listAll();
+  /** All lab tests, or those with {@code status} when not null, newest first. */
+  public List<LabTest> getAllLabTests(String status) {
+    return repository.listNewestFirst(status);
+  }
+
+  public LabTestPage getLabTestPage(String status, String after, int limit) {
+    int pageSize = pageSize(limit);
+    return page(repository.findPage(status, cursor(after), pageSize + 1), pageSize);
+  }
+
+  static int pageSize(int limit) {
+    return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+  }
+
+  static LabTestCursor cursor(String after) {
+    return after != null ? LabTestCursor.decode(after) : null;
+  }
+
+  /** {@code rows} holds one test more than the page when there is a next page. */
+  static LabTestPage page(List<LabTest> rows, int pageSize) {
+    List<LabTest> page = rows.subList(0, Math.min(rows.size(), pageSize));
+    String nextCursor = null;
+    if (rows.size() > pageSize) {
+      LabTest last = page.get(page.size() - 1);
+      nextCursor = new LabTestCursor(last.getDate(), last.id).encode();
+    }
+    return new LabTestPage(page, nextCursor);
   }
 
   public List<LabTestType> getTestTypes() {
+    return testTypes();
+  }
+
+  static List<LabTestType> testTypes() {
     List<LabTestType> types = new ArrayList<>();
     types.add(
         new LabTestType("blood_count", "Hemograma Completo", "Contagem de celulas sanguineas"));
@@ -0,0 +1,68 @@
+package com.hvitops.laboratory.service;
+
+import com.hvitops.laboratory.dto.LabTestPage;
+import com.hvitops.laboratory.entity.LabTest;
+import com.hvitops.laboratory.entity.LabTestType;
+import com.hvitops.laboratory.repository.ReactiveLabTestRepository;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.List;
+import org.bson.types.ObjectId;
+
+/**
+ * {@link LabTestService} on {@link ReactiveLabTestRepository}: the same operations, run on the
+ * event loop without blocking it.
+ */
+@ApplicationScoped
+public class ReactiveLabTestService {
+
+  @Inject ReactiveLabTestRepository repository;
+
+  public Uni<LabTest> createLabTest(LabTest labTest) {
+    return repository.persist(labTest);
+  }
+
+  public Uni<LabTest> getLabTestById(String id) {
+    return repository.findById(new ObjectId(id));
+  }
+
+  /** A patient's lab tests newest first. */
+  public Multi<LabTest> streamLabTestsByPatientId(Long patientId) {
+    return repository.streamByPatientId(patientId);
+  }
+
+  public Uni<LabTestPage> getLabTestPageByPatientId(Long patientId, String after, int limit) {
+    int pageSize = LabTestService.pageSize(limit);
+    return repository.findPageByPatientId(patientId, LabTestService.cursor(after), pageSize + 1)
+        .map(rows -> LabTestService.page(rows, pageSize));
+  }
+
+  public Uni<LabTest> updateLabTest(String id, LabTest labTest) {
+    return repository.findById(new ObjectId(id))
+        .onItem().ifNotNull().transformToUni(existing -> {
+          LabTestService.applyChanges(existing, labTest);
+          return repository.update(existing);
+        });
+  }
+
+  public Uni<Boolean> deleteLabTest(String id) {
+    return repository.deleteById(new ObjectId(id));
+  }
+
+  /** All lab tests, or those with {@code status} when not null, newest first. */
+  public Multi<LabTest> streamAllLabTests(String status) {
+    return repository.streamNewestFirst(status);
+  }
+
+  public Uni<LabTestPage> getLabTestPage(String status, String after, int limit) {
+    int pageSize = LabTestService.pageSize(limit);
+    return repository.findPage(status, LabTestService.cursor(after), pageSize + 1)
+        .map(rows -> LabTestService.page(rows, pageSize));
+  }
+
+  public List<LabTestType> getTestTypes() {
+    return LabTestService.testTypes();
+  }
+}
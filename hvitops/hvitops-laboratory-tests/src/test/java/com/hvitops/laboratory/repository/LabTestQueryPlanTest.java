@@ -0,0 +1,86 @@
+package com.hvitops.laboratory.repository;
+
+import com.hvitops.laboratory.entity.LabTest;
+import com.mongodb.client.MongoCollection;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Explains every lab test query shape against a MongoDB from Dev Services, with the indexes
+ * created at startup, and fails if one would scan the whole collection.
+ */
+@QuarkusTest
+class LabTestQueryPlanTest {
+
+    private static final String[] STATUSES = {"scheduled", "pending_results", "completed"};
+
+    @Inject LabTestRepository repository;
+
+    @BeforeEach
+    void seed() {
+        if (repository.count() > 0) {
+            return;
+        }
+        // enough tests that a collection scan is never the cheapest plan by accident
+        List<LabTest> tests = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 8, 0);
+        for (int i = 0; i < 1000; i++) {
+            LabTest test = new LabTest();
+            test.setPatientId((long) (i % 50));
+            test.setStatus(STATUSES[i % STATUSES.length]);
+            test.setDate(i % 100 == 0 ? null : start.plusHours(i));
+            test.setItems(List.of());
+            tests.add(test);
+        }
+        repository.persist(tests);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("shapes")
+    void queryUsesAnIndex(String shape, Document filter) {
+        MongoCollection<LabTest> collection = repository.mongoCollection();
+        Document plan = collection.find(filter).sort(LabTestQueries.NEWEST_FIRST).limit(50).explain();
+        Object winningPlan = plan.get("queryPlanner", Document.class).get("winningPlan");
+        assertFalse(hasStage(winningPlan, "COLLSCAN"), () -> shape + " scans the collection: " + winningPlan);
+    }
+
+    static Stream<Arguments> shapes() {
+        LabTestCursor dated = new LabTestCursor(LocalDateTime.of(2025, 1, 10, 8, 0), new ObjectId());
+        LabTestCursor undated = new LabTestCursor(null, new ObjectId());
+        List<Arguments> shapes = new ArrayList<>();
+        for (LabTestCursor cursor : new LabTestCursor[] {null, dated, undated}) {
+            String suffix = cursor == null ? "" : cursor.date() != null ? " after a dated test" : " after an undated test";
+            shapes.add(Arguments.of("by patient" + suffix, LabTestQueries.patientFilter(1L, cursor)));
+            shapes.add(Arguments.of("by status" + suffix, LabTestQueries.listFilter("scheduled", cursor)));
+            shapes.add(Arguments.of("all" + suffix, LabTestQueries.listFilter(null, cursor)));
+        }
+        return shapes.stream();
+    }
+
+    /** Searches a plan tree for {@code stage}, whatever its nesting ({@code inputStage}, {@code inputStages}, ...). */
+    private static boolean hasStage(Object node, String stage) {
+        if (node instanceof Document document) {
+            if (stage.equals(document.get("stage"))) {
+                return true;
+            }
+            return document.values().stream().anyMatch(value -> hasStage(value, stage));
+        }
+        if (node instanceof List<?> list) {
+            return list.stream().anyMatch(value -> hasStage(value, stage));
+        }
+        return false;
+    }
+}
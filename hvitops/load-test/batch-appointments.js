@@ -0,0 +1,64 @@
+// Throughput of appointment imports: COUNT appointments created one POST at a time, as the import
+// jobs did, then COUNT more in one POST /appointments/batch, then all of them cancelled in one
+// POST /appointments/batch/cancel. Prints appointments per second for each.
+// k6 run -e BASE_URL=http://localhost:8081 batch-appointments.js
+import http from 'k6/http';
+import { check, fail } from 'k6';
+import { Trend } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const COUNT = parseInt(__ENV.COUNT || '2000');
+// doctors far above the seed data; everything created is cancelled at the end, so runs can repeat
+const FIRST_DOCTOR = 800000;
+const PER_DOCTOR = 400;
+const headers = { 'Content-Type': 'application/json' };
+
+const singleRate = new Trend('single_appointments_per_second');
+const batchRate = new Trend('batch_appointments_per_second');
+const cancelRate = new Trend('batch_cancellations_per_second');
+
+export const options = {
+  vus: 1,
+  iterations: 1,
+  summaryTrendStats: ['avg'],
+};
+
+// eight one-hour appointments a day from 08:00, years ahead; the two halves use different doctors
+function appointment(i) {
+  const slot = i % PER_DOCTOR;
+  const start = new Date(Date.UTC(2031, 0, 6 + Math.floor(slot / 8), 8 + (slot % 8)));
+  return {
+    patientId: 1,
+    doctorId: FIRST_DOCTOR + Math.floor(i / PER_DOCTOR),
+    scheduledAt: start.toISOString().substring(0, 19),
+  };
+}
+
+export default function () {
+  const ids = [];
+
+  let started = Date.now();
+  for (let i = 0; i < COUNT; i++) {
+    const response = http.post(`${BASE_URL}/appointments`, JSON.stringify(appointment(i)), { headers });
+    if (response.status !== 201) {
+      fail(`single create ${i} answered ${response.status}: ${response.body}`);
+    }
+    ids.push(response.json('id'));
+  }
+  singleRate.add(COUNT / ((Date.now() - started) / 1000));
+
+  const items = [];
+  for (let i = COUNT; i < 2 * COUNT; i++) {
+    items.push(appointment(i));
+  }
+  started = Date.now();
+  const batch = http.post(`${BASE_URL}/appointments/batch`, JSON.stringify(items), { headers, timeout: '300s' });
+  batchRate.add(COUNT / ((Date.now() - started) / 1000));
+  check(batch, { 'every batch item created': (r) => r.status === 200 && r.json('succeeded') === COUNT });
+  batch.json('items').forEach((item) => ids.push(item.id));
+
+  started = Date.now();
+  const cancel = http.post(`${BASE_URL}/appointments/batch/cancel`, JSON.stringify(ids), { headers, timeout: '300s' });
+  cancelRate.add(ids.length / ((Date.now() - started) / 1000));
+  check(cancel, { 'every appointment cancelled': (r) => r.status === 200 && r.json('succeeded') === ids.length });
+}
@@ -0,0 +1,38 @@
+// Load profile for POST /auth/login at a fixed arrival rate. Logins are CPU-bound (BCrypt), so
+// past what the login pool sustains they are shed with 503, counted apart from real failures.
+// Run through virtual-threads.sh, or: k6 run -e BASE_URL=http://localhost:8085 login.js
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8085';
+const RATE = parseInt(__ENV.RATE || '40');
+const DURATION = __ENV.DURATION || '60s';
+// a seed user of the auth migrations
+const EMAIL = __ENV.EMAIL || 'patient@example.com';
+const PASSWORD = __ENV.PASSWORD || 'password';
+
+const shed = new Counter('logins_shed');
+
+export const options = {
+  scenarios: {
+    logins: {
+      executor: 'constant-arrival-rate',
+      rate: RATE,
+      timeUnit: '1s',
+      duration: DURATION,
+      preAllocatedVUs: 100,
+      maxVUs: 1000,
+    },
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+  const response = http.post(`${BASE_URL}/auth/login`, JSON.stringify({ email: EMAIL, password: PASSWORD }),
+    { headers: { 'Content-Type': 'application/json' }, tags: { name: 'login' } });
+  if (response.status === 503) {
+    shed.add(1);
+  }
+  check(response, { 'status is 200 or 503': (r) => r.status === 200 || r.status === 503 });
+}
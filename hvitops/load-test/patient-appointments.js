@@ -0,0 +1,53 @@
+// Load profile for GET /appointments/patient/{id} at a fixed arrival rate, so that a slower
+// thread model shows up as latency instead of as fewer requests.
+// Run through virtual-threads.sh, or: k6 run -e BASE_URL=http://localhost:8081 patient-appointments.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const RATE = parseInt(__ENV.RATE || '400');
+const DURATION = __ENV.DURATION || '60s';
+// patients far above the seed data, each with APPOINTMENTS_PER_PATIENT appointments with a doctor
+// of their own, so that the seeded appointments never overlap
+const FIRST_PATIENT = 900000;
+const PATIENTS = 50;
+const APPOINTMENTS_PER_PATIENT = 100;
+
+export const options = {
+  scenarios: {
+    listings: {
+      executor: 'constant-arrival-rate',
+      rate: RATE,
+      timeUnit: '1s',
+      duration: DURATION,
+      preAllocatedVUs: 200,
+      maxVUs: 2000,
+    },
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+  const probe = http.get(`${BASE_URL}/appointments/patient/${FIRST_PATIENT + PATIENTS - 1}?limit=1`);
+  if (probe.status === 200 && probe.json('items').length > 0) {
+    return;
+  }
+  const items = [];
+  for (let patient = FIRST_PATIENT; patient < FIRST_PATIENT + PATIENTS; patient++) {
+    for (let i = 0; i < APPOINTMENTS_PER_PATIENT; i++) {
+      // eight one-hour appointments a day from 08:00, years ahead
+      const start = new Date(Date.UTC(2030, 0, 7 + Math.floor(i / 8), 8 + (i % 8)));
+      items.push({ patientId: patient, doctorId: patient, scheduledAt: start.toISOString().substring(0, 19) });
+    }
+  }
+  const response = http.post(`${BASE_URL}/appointments/batch`, JSON.stringify(items),
+    { headers: { 'Content-Type': 'application/json' }, timeout: '120s' });
+  check(response, { 'seeded': (r) => r.status === 200 });
+}
+
+export default function () {
+  const patient = FIRST_PATIENT + Math.floor(Math.random() * PATIENTS);
+  check(http.get(`${BASE_URL}/appointments/patient/${patient}`, { tags: { name: 'patient' } }), {
+    'status is 200': (response) => response.status === 200,
+  });
+}
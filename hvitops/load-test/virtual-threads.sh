@@ -0,0 +1,76 @@
+#!/bin/sh
+# Runs auth and appointments on platform threads, then with the virtual-threads profile, puts the
+# same k6 load on GET /appointments/patient/{id} and POST /auth/login, and prints their latency
+# percentiles and the highest thread count of each JVM during the run.
+# Needs the stack running: docker compose up -d
+#
+# Usage: ./virtual-threads.sh [appointments rate per second] [login rate per second] [duration]
+set -e
+
+cd "$(dirname "$0")/.."
+APPOINTMENTS_RATE="${1:-400}"
+LOGIN_RATE="${2:-40}"
+DURATION="${3:-60s}"
+RESULTS="$(mktemp -d)"
+cat > "$RESULTS/virtual-threads.yml" <<'YAML'
+services:
+  auth:
+    environment:
+      SPRING_PROFILES_ACTIVE: "virtual-threads"
+  appointments:
+    environment:
+      SPRING_PROFILES_ACTIVE: "virtual-threads"
+YAML
+
+# samples a container's JVM thread count every second into a file, until killed
+sample_threads() {
+  while true; do
+    docker exec "$1" grep Threads /proc/1/status 2>/dev/null | awk '{print $2}'
+    sleep 1
+  done > "$2"
+}
+
+# runs a k6 script of load-test/ against a container of the stack
+k6() {
+  NETWORK="$(docker inspect "$1" -f '{{range $name, $_ := .NetworkSettings.Networks}}{{$name}}{{end}}')"
+  docker run --rm --network "$NETWORK" -v "$PWD/load-test:/scripts" grafana/k6 run \
+    -e BASE_URL="http://$1:$2" -e RATE="$3" -e DURATION="$DURATION" "/scripts/$4"
+}
+
+for MODE in platform virtual; do
+  if [ "$MODE" = virtual ]; then
+    docker compose -f docker-compose.yml -f "$RESULTS/virtual-threads.yml" up -d --no-deps auth appointments >/dev/null
+  else
+    docker compose up -d --no-deps --force-recreate auth appointments >/dev/null
+  fi
+  until docker exec hvitops-appointments curl -sf http://localhost:8081/actuator/health >/dev/null 2>&1 \
+      && docker exec hvitops-auth curl -sf http://localhost:8085/actuator/health >/dev/null 2>&1; do
+    sleep 1
+  done
+
+  sample_threads hvitops-appointments "$RESULTS/$MODE.appointments.threads" &
+  SAMPLER=$!
+  k6 hvitops-appointments 8081 "$APPOINTMENTS_RATE" patient-appointments.js > "$RESULTS/$MODE.appointments.log"
+  kill "$SAMPLER"
+
+  sample_threads hvitops-auth "$RESULTS/$MODE.auth.threads" &
+  SAMPLER=$!
+  k6 hvitops-auth 8085 "$LOGIN_RATE" login.js > "$RESULTS/$MODE.auth.log"
+  kill "$SAMPLER"
+
+  for SERVICE in appointments auth; do
+    grep -E 'http_req_duration|http_req_failed|dropped_iterations|logins_shed' "$RESULTS/$MODE.$SERVICE.log" \
+      > "$RESULTS/$MODE.$SERVICE.summary" || true
+  done
+done
+
+for MODE in platform virtual; do
+  echo "== $MODE threads"
+  echo "-- GET /appointments/patient/{id}: $APPOINTMENTS_RATE requests/s for $DURATION, peak threads $(sort -n "$RESULTS/$MODE.appointments.threads" | tail -1)"
+  cat "$RESULTS/$MODE.appointments.summary"
+  echo "-- POST /auth/login: $LOGIN_RATE requests/s for $DURATION, peak threads $(sort -n "$RESULTS/$MODE.auth.threads" | tail -1)"
+  cat "$RESULTS/$MODE.auth.summary"
+done
+
+# leave the services as configured in docker-compose.yml
+docker compose up -d --no-deps --force-recreate auth appointments >/dev/null